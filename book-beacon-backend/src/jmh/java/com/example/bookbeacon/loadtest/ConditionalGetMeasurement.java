@@ -0,0 +1,70 @@
+package com.example.bookbeacon.loadtest;
+
+import com.example.bookbeacon.BookBeaconBackendApplication;
+import com.example.bookbeacon.service.SeededLibrary;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+
+// Bytes on the wire and latency of the listing endpoints: plain, gzip, and revalidated with If-None-Match:
+// mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test
+//     -Dexec.mainClass=com.example.bookbeacon.loadtest.ConditionalGetMeasurement [-Dload.requests=500]
+public class ConditionalGetMeasurement {
+
+    private static final int ROWS = Integer.getInteger("load.rows", 10_000);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 500);
+    private static final List<String> ENDPOINTS = List.of(
+            "/api/books?size=200", "/api/books?size=200&sort=title", "/api/users?size=200",
+            "/api/users?size=200&sort=name");
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookBeaconBackendApplication.class)
+                .profiles("benchmark")
+                .run("--server.port=0");
+        try {
+            SeededLibrary.seed(context.getBean(JdbcTemplate.class), ROWS);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            System.out.printf("%nrows=%d requests per cell=%d%n", ROWS, REQUESTS);
+            System.out.printf("%-36s %-12s %10s %9s %9s%n", "endpoint", "mode", "bytes", "p50 ms", "p99 ms");
+            for (String endpoint : ENDPOINTS) {
+                URI uri = URI.create("http://localhost:" + port + endpoint);
+                String etag = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding())
+                        .headers().firstValue("ETag").orElseThrow();
+                measure(client, endpoint, "plain", HttpRequest.newBuilder(uri).build());
+                measure(client, endpoint, "gzip", HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").build());
+                measure(client, endpoint, "304", HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", etag).build());
+            }
+        } finally {
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    private static void measure(HttpClient client, String endpoint, String mode, HttpRequest request) throws Exception {
+        for (int i = 0; i < REQUESTS / 5; i++) {
+            client.send(request, HttpResponse.BodyHandlers.ofByteArray()); // Warm-up
+        }
+        long[] nanos = new long[REQUESTS];
+        long bytes = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            nanos[i] = System.nanoTime() - start;
+            bytes = response.body().length; // The client does not decompress, so this is what crossed the wire
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-36s %-12s %10d %9.2f %9.2f%n", endpoint, mode, bytes,
+                nanos[REQUESTS / 2] / 1e6, nanos[(int) Math.ceil(REQUESTS * 0.99) - 1] / 1e6);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.bookbeacon.loadtest;
+
+import com.example.bookbeacon.BookBeaconBackendApplication;
+import com.example.bookbeacon.service.SeededLibrary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Load on the primary pool with and without replica routing, under a browse-heavy mix with some circulation.
+// Without -Dreplica.urls the "replica" is a second pool on the benchmark database, which shows the routing split;
+// against real servers, e.g. -Dprimary.url=jdbc:postgresql://localhost:5432/library_db
+// -Dreplica.urls=jdbc:postgresql://localhost:5433/library_db, it also shows the load actually leaving the primary:
+// mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test
+//     -Dexec.mainClass=com.example.bookbeacon.loadtest.ReadReplicaMeasurement [-Dload.clients=64 -Dload.seconds=30]
+public class ReadReplicaMeasurement {
+
+    private static final int ROWS = Integer.getInteger("load.rows", 10_000);
+    private static final int CLIENTS = Integer.getInteger("load.clients", 64);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 10);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+    private static final String PRIMARY_URL = System.getProperty("primary.url");
+    private static final String REPLICA_URLS = System.getProperty("replica.urls");
+    private static final String[] CATEGORIES = {"Fiction", "Science", "History", "Technology", "Art"};
+
+    public static void main(String[] args) throws Exception {
+        List<String> results = new ArrayList<>();
+        results.add(run("primary only", List.of()));
+        List<String> routed = new ArrayList<>();
+        if (REPLICA_URLS == null) {
+            routed.add("--bookbeacon.datasource.replicas="
+                    + "jdbc:h2:mem:library_db;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            routed.add("--bookbeacon.datasource.primary-position-query=SELECT 0");
+            routed.add("--bookbeacon.datasource.replica.position-query=SELECT 0");
+        } else {
+            routed.add("--bookbeacon.datasource.replicas=" + REPLICA_URLS);
+        }
+        results.add(run("replicas", routed));
+
+        System.out.printf("%nclients=%d rows=%d measured=%ds%n", CLIENTS, ROWS, SECONDS);
+        System.out.printf("%-13s %11s %15s %17s %15s %14s %14s%n", "mode", "requests/s", "primary conn/s",
+                "primary busy ms/s", "replica conn/s", "held back/s", "no replica/s");
+        results.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    private static String run(String mode, List<String> extraArgs) throws Exception {
+        List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--spring.datasource.hikari.pool-name=primary"));
+        if (PRIMARY_URL != null) {
+            appArgs.add("--spring.datasource.url=" + PRIMARY_URL);
+            appArgs.add("--spring.datasource.driver-class-name=org.postgresql.Driver");
+            appArgs.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect");
+        }
+        appArgs.addAll(extraArgs);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookBeaconBackendApplication.class)
+                .profiles("benchmark")
+                .run(appArgs.toArray(String[]::new));
+        try {
+            if (PRIMARY_URL == null) {
+                SeededLibrary.seed(context.getBean(JdbcTemplate.class), ROWS);
+            }
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            drive(port, WARMUP_SECONDS);
+            double[] before = readings(registry);
+            long requests = drive(port, SECONDS);
+            double[] after = readings(registry);
+            return String.format("%-13s %11.0f %15.0f %17.0f %15.0f %14.0f %14.0f", mode, (double) requests / SECONDS,
+                    (after[0] - before[0]) / SECONDS, (after[1] - before[1]) / SECONDS,
+                    (after[2] - before[2]) / SECONDS, (after[3] - before[3]) / SECONDS,
+                    (after[4] - before[4]) / SECONDS);
+        } finally {
+            context.close();
+        }
+    }
+
+    // Primary checkouts, primary connection time held (ms), then read connections by route
+    private static double[] readings(MeterRegistry registry) {
+        Timer primary = registry.find("hikaricp.connections.usage").tag("pool", "primary").timer();
+        return new double[]{
+                primary == null ? 0 : primary.count(),
+                primary == null ? 0 : primary.totalTime(TimeUnit.MILLISECONDS),
+                routed(registry, "replica"),
+                routed(registry, "primary-read-your-writes"),
+                routed(registry, "primary-no-replica")};
+    }
+
+    private static double routed(MeterRegistry registry, String route) {
+        FunctionCounter counter = registry.find("bookbeacon.db.read-connections").tag("route", route).functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static long drive(int port, int seconds) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String base = "http://localhost:" + port + "/api";
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            String clientId = "load-" + i;
+            futures.add(clients.submit(() -> {
+                long requests = 0;
+                while (System.nanoTime() < deadline) {
+                    requests += send(client, base, clientId);
+                }
+                return requests;
+            }));
+        }
+        long total = 0;
+        for (Future<Long> future : futures) {
+            total += future.get();
+        }
+        clients.shutdown();
+        return total;
+    }
+
+    // 50% catalog pages, 20% member loan pages, 10% hold queues, 20% issue-then-return; returns requests sent
+    private static int send(HttpClient client, String base, String clientId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = random.nextLong(1, ROWS + 1);
+        long bookId = random.nextLong(1, ROWS + 1);
+        int pick = random.nextInt(10);
+        try {
+            if (pick < 5) {
+                get(client, base + "/books?size=50&category=" + CATEGORIES[random.nextInt(CATEGORIES.length)],
+                        clientId);
+                return 1;
+            }
+            if (pick < 7) {
+                get(client, base + "/transactions?size=20&userId=" + userId, clientId);
+                return 1;
+            }
+            if (pick < 8) {
+                get(client, base + "/holds/book/" + bookId, clientId);
+                return 1;
+            }
+            HttpResponse<String> issued = post(client, base + "/transactions/issue?userId=" + userId + "&bookId="
+                    + bookId, clientId);
+            if (issued.statusCode() != 200) {
+                return 1;
+            }
+            String body = issued.body();
+            int idStart = body.indexOf("\"id\":") + 5;
+            String id = body.substring(idStart, body.indexOf(',', idStart));
+            post(client, base + "/transactions/return/" + id, clientId);
+            return 2;
+        } catch (Exception e) {
+            return 1;
+        }
+    }
+
+    private static HttpResponse<String> get(HttpClient client, String uri, String clientId) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(uri)).header("X-Client-Id", clientId).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(HttpClient client, String uri, String clientId) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(uri)).header("X-Client-Id", clientId)
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.bookbeacon.loadtest;
+
+import java.io.File;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Time from process start to the first answered request, and that request's latency, for each way of packaging the
+// application: the Spring Boot jar, AOT on the thin jar, AOT plus the CDS archive, and the native image when built.
+// Every start runs against a real database (migrations already applied) with the prod profile the AOT build froze:
+// mvn -Pfast-startup package -DskipTests [&& mvn -Pnative native:compile -DskipTests]
+// mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test
+//     -Dexec.mainClass=com.example.bookbeacon.loadtest.StartupMeasurement
+//     [-Dstartup.db-url=jdbc:postgresql://localhost:5432/library_db -Dstartup.runs=5]
+public class StartupMeasurement {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+    private static final int PORT = Integer.getInteger("startup.port", 8081);
+    private static final int TIMEOUT_SECONDS = Integer.getInteger("startup.timeout-seconds", 120);
+    private static final String DB_URL = System.getProperty("startup.db-url");
+    private static final String PATH = System.getProperty("startup.path", "/api/books?size=20");
+    private static final Path TARGET = Path.of(System.getProperty("startup.target", "target"));
+    private static final String JAR = System.getProperty("startup.jar", "book-beacon-backend-0.0.1-SNAPSHOT");
+
+    public static void main(String[] args) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path fastStartup = TARGET.resolve("fast-startup");
+        String thinJar = fastStartup.resolve(JAR + "-app.jar").toString();
+        Path nativeImage = TARGET.resolve("book-beacon-backend");
+
+        List<String> results = new ArrayList<>();
+        results.add(measure("jar", null, List.of(java, "-jar", TARGET.resolve(JAR + ".jar").toString())));
+        results.add(measure("aot", null, List.of(java, "-Dspring.aot.enabled=true", "-jar", thinJar)));
+        // The archive only matches the jar path the training run used, which is relative to fast-startup/
+        results.add(measure("aot+cds", fastStartup.toFile(), List.of(java, "-XX:SharedArchiveFile=application.jsa",
+                "-Xshare:on", "-Dspring.aot.enabled=true", "-jar", JAR + "-app.jar")));
+        if (Files.isExecutable(nativeImage)) {
+            results.add(measure("native", null, List.of(nativeImage.toString())));
+        }
+
+        System.out.printf("%nruns=%d path=%s (median, ms)%n", RUNS, PATH);
+        System.out.printf("%-9s %15s %15s %15s%n", "mode", "first response", "first request", "warm request");
+        results.forEach(System.out::println);
+    }
+
+    private static String measure(String mode, File directory, List<String> command) throws Exception {
+        long[] ready = new long[RUNS];
+        long[] first = new long[RUNS];
+        long[] warm = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long[] timings = start(mode, directory, command);
+            ready[run] = timings[0];
+            first[run] = timings[1];
+            warm[run] = timings[2];
+        }
+        return String.format("%-9s %15d %15d %15d", mode, median(ready), median(first), median(warm));
+    }
+
+    // Milliseconds from launch to the first response, the latency of that request, then of the one after it
+    private static long[] start(String mode, File directory, List<String> command) throws Exception {
+        List<String> full = new ArrayList<>(command);
+        full.add("--spring.profiles.active=prod");
+        full.add("--server.port=" + PORT);
+        if (DB_URL != null) {
+            full.add("--spring.datasource.url=" + DB_URL);
+        }
+        File log = TARGET.resolve("startup-" + mode.replace('+', '-') + ".log").toFile();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + PATH)).GET().build();
+
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(full).directory(directory).redirectErrorStream(true).redirectOutput(log)
+                .start();
+        try {
+            long deadline = launched + Duration.ofSeconds(TIMEOUT_SECONDS).toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited with " + process.exitValue() + ", see " + log);
+                }
+                long sent = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    long answered = System.nanoTime();
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException(mode + " answered " + response.statusCode() + ", see " + log);
+                    }
+                    long warmSent = System.nanoTime();
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    return new long[]{millis(launched, answered), millis(sent, answered),
+                            millis(warmSent, System.nanoTime())};
+                } catch (ConnectException e) {
+                    Thread.sleep(5); // Not listening yet
+                }
+            }
+            throw new IllegalStateException(mode + " not answering after " + TIMEOUT_SECONDS + "s, see " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static long millis(long from, long to) {
+        return Duration.ofNanos(to - from).toMillis();
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.bookbeacon.loadtest;
+
+import com.example.bookbeacon.BookBeaconBackendApplication;
+import com.example.bookbeacon.service.SeededLibrary;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Kiosk-style closed-loop load against the seeded app, once on platform threads and once on virtual threads:
+// mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test
+//     -Dexec.mainClass=com.example.bookbeacon.loadtest.ThreadingModeLoadTest [-Dload.clients=2000 -Dload.seconds=30]
+public class ThreadingModeLoadTest {
+
+    private static final int ROWS = Integer.getInteger("load.rows", 10_000);
+    private static final int CLIENTS = Integer.getInteger("load.clients", 2000);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 10);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+
+    public static void main(String[] args) throws Exception {
+        List<String> results = new ArrayList<>();
+        results.add(run("platform", "benchmark"));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run("virtual", "benchmark", "virtual-threads"));
+        } else {
+            System.out.println("Skipping virtual-thread mode: needs Java 21, running on " + Runtime.version());
+        }
+
+        System.out.printf("%nclients=%d rows=%d measured=%ds%n", CLIENTS, ROWS, SECONDS);
+        System.out.printf("%-9s %12s %9s %9s %9s %9s %8s%n", "mode", "requests/s", "p50 ms", "p99 ms", "p99.9 ms",
+                "max ms", "errors");
+        results.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    private static String run(String mode, String... profiles) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookBeaconBackendApplication.class)
+                .profiles(profiles)
+                .run("--server.port=0");
+        try {
+            SeededLibrary.seed(context.getBean(JdbcTemplate.class), ROWS);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            drive(port, WARMUP_SECONDS);
+            Sample sample = drive(port, SECONDS);
+            return sample.summary(mode);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Sample drive(int port, int seconds) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String base = "http://localhost:" + port + "/api";
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<Sample>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                Sample sample = new Sample();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    boolean ok = send(client, base);
+                    sample.record(System.nanoTime() - start, ok);
+                }
+                return sample;
+            }));
+        }
+        Sample total = new Sample();
+        for (Future<Sample> future : futures) {
+            total.add(future.get());
+        }
+        clients.shutdown();
+        total.seconds = seconds;
+        return total;
+    }
+
+    // 60% book lookups, 20% member loan pages, 20% issue-then-return at a kiosk
+    private static boolean send(HttpClient client, String base) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = random.nextLong(1, ROWS + 1);
+        long bookId = random.nextLong(1, ROWS + 1);
+        int pick = random.nextInt(10);
+        try {
+            if (pick < 6) {
+                return get(client, base + "/books/" + bookId).statusCode() == 200;
+            }
+            if (pick < 8) {
+                return get(client, base + "/transactions?size=20&userId=" + userId).statusCode() == 200;
+            }
+            HttpResponse<String> issued = post(client, base + "/transactions/issue?userId=" + userId + "&bookId=" + bookId);
+            if (issued.statusCode() != 200) {
+                return false;
+            }
+            String body = issued.body();
+            int idStart = body.indexOf("\"id\":") + 5;
+            String id = body.substring(idStart, body.indexOf(',', idStart));
+            return post(client, base + "/transactions/return/" + id).statusCode() == 200;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static HttpResponse<String> get(HttpClient client, String uri) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(HttpClient client, String uri) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(uri)).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static final class Sample {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+        private int seconds;
+
+        private void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        private void add(Sample other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        private String summary(String mode) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return String.format("%-9s %12.0f %9.1f %9.1f %9.1f %9.1f %8d", mode, (double) count / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6, errors);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.BookImportResultDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Catalog import throughput in rows per second: new titles, and a re-delivered feed of titles already held
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@OperationsPerInvocation(BookImportBenchmark.UPLOAD_ROWS)
+public class BookImportBenchmark {
+
+    static final int UPLOAD_ROWS = 10_000;
+
+    @State(Scope.Thread)
+    public static class Upload {
+        private int sequence;
+        private byte[] newTitles;
+        private byte[] existingTitles;
+
+        // Fresh ISBNs every time, so each upload inserts rather than updating the previous one
+        @Setup(Level.Invocation)
+        public void prepare() {
+            sequence++;
+            newTitles = csv("new-" + sequence + "-", sequence);
+            existingTitles = csv("978-", sequence);
+        }
+
+        private static byte[] csv(String isbnPrefix, int sequence) {
+            StringBuilder csv = new StringBuilder("isbn,title,author,category,quantity,published_year,description\n");
+            for (int i = 1; i <= UPLOAD_ROWS; i++) {
+                csv.append(isbnPrefix).append(i).append(",\"Imported Title ").append(i).append(", vol. ").append(sequence)
+                        .append("\",Author ").append(i % 5000).append(",Fiction,").append(5 + sequence % 3)
+                        .append(',').append(1950 + i % 75).append(",Vendor description ").append(i).append('\n');
+            }
+            return csv.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public BookImportResultDTO insertNewTitles(SeededLibrary library, Upload upload) {
+        return library.bookImportService.importCsv(new ByteArrayInputStream(upload.newTitles));
+    }
+
+    @Benchmark
+    public BookImportResultDTO updateExistingTitles(SeededLibrary library, Upload upload) {
+        return library.bookImportService.importCsv(new ByteArrayInputStream(upload.existingTitles));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.CursorPageDTO;
+import com.example.bookbeacon.dto.SearchResultDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookServiceBenchmark {
+
+    @Benchmark
+    public CursorPageDTO<BookDTO> firstPageById(SeededLibrary library) {
+        return library.bookService.getBooks(null, null, null, null, 50);
+    }
+
+    @Benchmark
+    public CursorPageDTO<BookDTO> firstPageByTitleInCategory(SeededLibrary library) {
+        return library.bookService.getBooks("Science", null, "title", null, 50);
+    }
+
+    // Served from the lookup cache once warmed up
+    @Benchmark
+    public Optional<BookDTO> lookupById(SeededLibrary library) {
+        return library.bookService.getBookById(library.randomId());
+    }
+
+    @Benchmark
+    public Optional<BookDTO> lookupByIsbn(SeededLibrary library) {
+        return library.bookService.getBookByIsbn("978-" + library.randomId());
+    }
+
+    @Benchmark
+    public SearchResultDTO<BookDTO> search(SeededLibrary library) {
+        return library.bookService.searchBooks("title " + library.randomId(), 0, 20);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.TransactionDTO;
+import com.example.bookbeacon.dto.UserDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.Transaction;
+import com.example.bookbeacon.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Entity to DTO mapping on its own, without a database or application context
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private BookService bookService;
+    private UserService userService;
+    private TransactionService transactionService;
+    private Book book;
+    private User user;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        bookService = new BookService();
+        userService = new UserService(null, null, null, null, null);
+        transactionService = new TransactionService();
+        LocalDate today = LocalDate.now();
+        book = new Book(1L, "The Pragmatic Programmer", "Hunt", "Technology", "978-0201616224",
+                5, 3, 1999, "From journeyman to master", 4L);
+        user = new User(1L, "Ada Lovelace", "ada@library.test", "555-0100", "Faculty", "M1",
+                today.minusYears(2), "Active", 2, 7L);
+        transaction = new Transaction(1L, user, book, today.minusDays(20), today.minusDays(6), null,
+                "OVERDUE", BigDecimal.valueOf(6), false);
+    }
+
+    @Benchmark
+    public BookDTO book() {
+        return bookService.convertToDto(book);
+    }
+
+    @Benchmark
+    public UserDTO user() {
+        return userService.convertToDto(user);
+    }
+
+    @Benchmark
+    public TransactionDTO transaction() {
+        return transactionService.convertToDTO(transaction);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.BookBeaconBackendApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Application context over an H2 catalog with `rows` books, members and past loans each
+@State(Scope.Benchmark)
+public class SeededLibrary {
+
+    private static final int INSERT_BATCH = 5000;
+    private static final String[] CATEGORIES = {"Fiction", "Science", "History", "Technology", "Art"};
+    private static final String[] ROLES = {"Student", "Faculty", "Staff"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    ConfigurableApplicationContext context;
+    BookService bookService;
+    UserService userService;
+    TransactionService transactionService;
+    BookImportService bookImportService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BookBeaconBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .run();
+        seed(context.getBean(JdbcTemplate.class), rows);
+        // Startup ran against an empty catalog; bring the index and counters up to the seeded data
+        context.getBean(CatalogSearchIndex.class).rebuild();
+        context.getBean(StatsService.class).reconcile();
+
+        bookService = context.getBean(BookService.class);
+        userService = context.getBean(UserService.class);
+        transactionService = context.getBean(TransactionService.class);
+        bookImportService = context.getBean(BookImportService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    public static void seed(JdbcTemplate jdbc, int rows) {
+        LocalDate today = LocalDate.now();
+        insert(jdbc, rows, "INSERT INTO books (title, author, category, isbn, quantity, available, published_year,"
+                + " description, version) VALUES (?, ?, ?, ?, 5, 5, ?, ?, 0)", i -> new Object[]{
+                "Title " + i, "Author " + i % 5000, CATEGORIES[i % CATEGORIES.length], "978-" + i,
+                1950 + i % 75, "Description of book " + i});
+        insert(jdbc, rows, "INSERT INTO users (name, email, phone, role, membership_id, join_date, status, books_issued,"
+                + " version) VALUES (?, ?, ?, ?, ?, ?, 'Active', 0, 0)", i -> new Object[]{
+                "Member " + i, "member" + i + "@library.test", "555-" + i, ROLES[i % ROLES.length], "M" + i,
+                Date.valueOf(today.minusDays(i % 3650))});
+        // Returned loans only, so every member and copy starts out free to borrow
+        insert(jdbc, rows, "INSERT INTO transactions (user_id, book_id, issue_date, due_date, return_date, status, fine)"
+                + " VALUES (?, ?, ?, ?, ?, 'RETURNED', 0)", i -> {
+            LocalDate issued = today.minusDays(30 + i % 3650);
+            return new Object[]{i, rows + 1 - i, Date.valueOf(issued), Date.valueOf(issued.plusDays(14)),
+                    Date.valueOf(issued.plusDays(7))};
+        });
+    }
+
+    private static void insert(JdbcTemplate jdbc, int rows, String sql, RowValues values) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(values.row(i));
+            if (batch.size() == INSERT_BATCH || i == rows) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private interface RowValues {
+        Object[] row(int i);
+    }
+}
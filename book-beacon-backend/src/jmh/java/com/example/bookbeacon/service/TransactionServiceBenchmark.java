@@ -0,0 +1,38 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.CursorPageDTO;
+import com.example.bookbeacon.dto.TransactionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TransactionServiceBenchmark {
+
+    // Issue and return in one operation so member limits and copy counts stay where the seed left them
+    @Benchmark
+    public TransactionDTO issueAndReturn(SeededLibrary library) {
+        TransactionDTO issued = library.transactionService.issueBook(library.randomId(), library.randomId());
+        return library.transactionService.returnBook(issued.getId());
+    }
+
+    @Benchmark
+    public CursorPageDTO<TransactionDTO> firstPageForMember(SeededLibrary library) {
+        return library.transactionService.getTransactions(null, library.randomId(), null, null, null, false, null, 50);
+    }
+
+    @Benchmark
+    public CursorPageDTO<TransactionDTO> firstPageReturned(SeededLibrary library) {
+        return library.transactionService.getTransactions("RETURNED", null, null, null, null, false, null, 50);
+    }
+}
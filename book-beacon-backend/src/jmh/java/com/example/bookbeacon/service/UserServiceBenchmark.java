@@ -0,0 +1,43 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.CursorPageDTO;
+import com.example.bookbeacon.dto.UserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserServiceBenchmark {
+
+    @Benchmark
+    public CursorPageDTO<UserDTO> firstPageById(SeededLibrary library) {
+        return library.userService.getUsers(null, null, null, null, 50);
+    }
+
+    @Benchmark
+    public CursorPageDTO<UserDTO> firstPageByNameForRole(SeededLibrary library) {
+        return library.userService.getUsers("Faculty", "Active", "name", null, 50);
+    }
+
+    // Served from the lookup cache once warmed up
+    @Benchmark
+    public Optional<UserDTO> lookupById(SeededLibrary library) {
+        return library.userService.getUserById(library.randomId());
+    }
+
+    @Benchmark
+    public Optional<UserDTO> lookupByMembershipId(SeededLibrary library) {
+        return library.userService.getUserByMembershipId("M" + library.randomId());
+    }
+}
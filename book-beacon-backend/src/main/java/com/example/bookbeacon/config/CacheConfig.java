@@ -0,0 +1,26 @@
+package com.example.bookbeacon.config;
+
+import com.example.bookbeacon.service.LookupCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(@Value("${bookbeacon.cache.spec}") String spec) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(
+                LookupCache.BOOKS_BY_ID, LookupCache.BOOKS_BY_ISBN,
+                LookupCache.USERS_BY_ID, LookupCache.USERS_BY_MEMBERSHIP_ID);
+        caffeine.setCacheSpecification(spec);
+        caffeine.setAllowNullValues(false); // Misses are never cached, so a newly created ISBN is found at once
+        // Evictions issued inside a transaction only apply after it commits
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bookbeacon.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Puts BulkheadDataSource in front of the connection pool; on by default in the virtual-threads profile
+@Configuration
+@ConditionalOnProperty(name = "bookbeacon.db.bulkhead.enabled", havingValue = "true")
+public class DatabaseBulkheadConfig {
+
+    @Bean
+    public static BeanPostProcessor databaseBulkhead(
+            @Value("${bookbeacon.db.bulkhead.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${bookbeacon.db.bulkhead.max-waiting:1000}") int maxWaiting,
+            @Value("${bookbeacon.db.bulkhead.acquire-timeout:PT5S}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ReadWriteRoutingDataSource routing) {
+                    // With read replicas only the primary is guarded; the replica pools cap themselves
+                    routing.setTargetDataSource(new BulkheadDataSource(routing.getTargetDataSource(), maxConcurrent,
+                            maxWaiting, acquireTimeout));
+                    return routing;
+                }
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, maxConcurrent, maxWaiting, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder databaseBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            BulkheadDataSource bulkhead = DataSourceUnwrapper.unwrap(dataSource, BulkheadDataSource.class);
+            if (bulkhead != null) {
+                Gauge.builder("bookbeacon.db.bulkhead.available", bulkhead, BulkheadDataSource::getAvailablePermits)
+                        .description("Connections that may still be taken without queueing")
+                        .register(registry);
+                Gauge.builder("bookbeacon.db.bulkhead.waiting", bulkhead, BulkheadDataSource::getWaiting)
+                        .description("Callers queued for a connection permit")
+                        .register(registry);
+            }
+        };
+    }
+}
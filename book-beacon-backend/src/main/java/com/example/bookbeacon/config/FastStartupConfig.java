@@ -0,0 +1,65 @@
+package com.example.bookbeacon.config;
+
+import com.example.bookbeacon.dto.AuditEventDTO;
+import com.example.bookbeacon.dto.ChangeDTO;
+import com.example.bookbeacon.dto.HoldDTO;
+import com.example.bookbeacon.dto.TransactionDTO;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.HoldRepository;
+import com.example.bookbeacon.repository.TransactionRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import com.example.bookbeacon.service.LoanPolicy;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.Environment;
+import org.springframework.data.projection.TargetAware;
+
+// Support for the fast-startup and native builds (see the pom profiles)
+@Configuration
+@ImportRuntimeHints(FastStartupConfig.NativeHints.class)
+class FastStartupConfig {
+
+    // The CDS training run (bookbeacon.cds.training-run=true, set by the fast-startup profile) only has to load
+    // classes and must not need a database, so it leaves migrations to the real start. Read from the environment at
+    // run time rather than as a @ConditionalOnProperty: AOT would settle that when the image is built.
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(Environment environment) {
+        return flyway -> {
+            if (!environment.getProperty("bookbeacon.cds.training-run", Boolean.class, false)) {
+                flyway.migrate();
+            }
+        };
+    }
+
+    // What a native image cannot find by itself: files read at run time, DTOs built by JPQL constructor expressions
+    // or serialised outside MVC return values, and the proxies behind interface projections
+    static class NativeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("loan-policy.csv");
+            hints.resources().registerPattern("db/vendor/*/*.sql");
+
+            for (Class<?> dto : new Class<?>[]{TransactionDTO.class, HoldDTO.class, AuditEventDTO.class}) {
+                hints.reflection().registerType(dto, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    ChangeDTO.class, TransactionDTO.class, LoanPolicy.Rule.class);
+
+            for (Class<?> projection : new Class<?>[]{BookRepository.CatalogTotals.class,
+                    UserRepository.MemberTotals.class, HoldRepository.QueueEntry.class,
+                    TransactionRepository.MemberLoanTotals.class, TransactionRepository.LoanTotals.class,
+                    TransactionRepository.IdRange.class, TransactionRepository.OverdueLoan.class}) {
+                hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_METHODS);
+                hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(projection, TargetAware.class));
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bookbeacon.config;
+
+import com.example.bookbeacon.service.TableVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// ETag / Last-Modified on catalog and member reads; response compression is set in application.properties
+@Configuration
+public class HttpCachingConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConditionalGetInterceptor(tableVersions, TableVersions.Table.BOOKS))
+                .addPathPatterns("/api/books", "/api/books/**")
+                .excludePathPatterns("/api/books/import/**");
+        registry.addInterceptor(new ConditionalGetInterceptor(tableVersions, TableVersions.Table.USERS))
+                .addPathPatterns("/api/users", "/api/users/**");
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bookbeacon.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.time.Duration;
+
+// Exposed at /actuator/prometheus. Boot already times HTTP endpoints, repository methods, caches and the pool;
+// this adds @Timed service methods, statements per request and the slow-query log.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspector(
+            @Value("${bookbeacon.sql-log.sample-rate:0}") double sampleRate) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector(sampleRate));
+    }
+
+    @Bean
+    public FilterRegistrationBean<StatementsPerRequestFilter> statementsPerRequestFilter(MeterRegistry registry) {
+        return new FilterRegistrationBean<>(new StatementsPerRequestFilter(registry));
+    }
+
+    @Bean
+    public static BeanPostProcessor slowQueryLogRegistrar(
+            @Value("${bookbeacon.metrics.slow-query-threshold:PT0.2S}") Duration threshold) {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(threshold);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repository) {
+                    repository.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(slowQueryLog));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.bookbeacon.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+// Read-only transactions go to the pools listed in bookbeacon.datasource.replicas; everything else, and any read
+// the replicas cannot serve fresh enough, to the primary. Off unless replicas are configured.
+@Configuration
+@ConditionalOnProperty(name = "bookbeacon.datasource.replicas")
+public class ReadReplicaConfig {
+
+    @Bean
+    public static BeanPostProcessor readReplicaRouting(
+            @Value("${bookbeacon.datasource.replicas}") String[] urls,
+            @Value("${bookbeacon.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${bookbeacon.datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${bookbeacon.datasource.replica.maximum-pool-size:10}") int poolSize,
+            @Value("${bookbeacon.datasource.replica.connection-timeout:PT1S}") Duration connectionTimeout,
+            @Value("${bookbeacon.datasource.replica.max-lag:PT5S}") Duration maxLag,
+            @Value("${bookbeacon.datasource.replica.lag-check-interval:PT0.2S}") Duration lagCheckInterval,
+            @Value("${bookbeacon.datasource.primary-position-query:}") String primaryPositionQuery,
+            @Value("${bookbeacon.datasource.replica.position-query:}") String replicaPositionQuery) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)
+                        || bean instanceof ReadWriteRoutingDataSource) {
+                    return bean;
+                }
+                List<HikariDataSource> pools = new ArrayList<>();
+                for (String url : urls) {
+                    HikariDataSource pool = new HikariDataSource();
+                    pool.setPoolName("replica-" + (pools.size() + 1));
+                    pool.setJdbcUrl(url.trim());
+                    pool.setUsername(username);
+                    pool.setPassword(password);
+                    pool.setMaximumPoolSize(poolSize);
+                    pool.setConnectionTimeout(connectionTimeout.toMillis());
+                    pool.setReadOnly(true);
+                    pools.add(pool);
+                }
+                ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, pools, maxLag,
+                        primaryPositionQuery.isBlank() ? ReadWriteRoutingDataSource.PRIMARY_POSITION_QUERY
+                                : primaryPositionQuery,
+                        replicaPositionQuery.isBlank() ? ReadWriteRoutingDataSource.REPLICA_POSITION_QUERY
+                                : replicaPositionQuery);
+                routing.startLagChecks(lagCheckInterval);
+                return routing;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${bookbeacon.datasource.replica.max-lag:PT5S}") Duration maxLag) {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter(maxLag));
+    }
+
+    @Bean
+    public MeterBinder readReplicaMetrics(DataSource dataSource) {
+        return registry -> {
+            ReadWriteRoutingDataSource routing = DataSourceUnwrapper.unwrap(dataSource, ReadWriteRoutingDataSource.class);
+            if (routing == null) {
+                return;
+            }
+            readConnections(registry, routing, "replica", ReadWriteRoutingDataSource::getReplicaReads);
+            readConnections(registry, routing, "primary-read-your-writes",
+                    ReadWriteRoutingDataSource::getReadYourWritesReads);
+            readConnections(registry, routing, "primary-no-replica", ReadWriteRoutingDataSource::getNoReplicaReads);
+            for (ReadWriteRoutingDataSource.Replica replica : routing.getReplicas()) {
+                Gauge.builder("bookbeacon.db.replica.lag", replica, ReadWriteRoutingDataSource.Replica::getLagSeconds)
+                        .description("How far the replica's replay is behind the primary")
+                        .baseUnit("seconds")
+                        .tag("replica", replica.getName())
+                        .register(registry);
+                replica.getPool().setMetricRegistry(registry); // hikaricp.* with pool=replica-N
+            }
+        };
+    }
+
+    private static void readConnections(MeterRegistry registry, ReadWriteRoutingDataSource routing, String route,
+                                        ToDoubleFunction<ReadWriteRoutingDataSource> count) {
+        FunctionCounter.builder("bookbeacon.db.read-connections", routing, count)
+                .description("Connections handed to read-only transactions, by where they came from")
+                .tag("route", route)
+                .register(registry);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.bookbeacon.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Writes and read-write transactions use the primary. A connection marked read-only before its first statement,
+// i.e. inside @Transactional(readOnly = true), comes from a replica instead. A replica is passed over while it is
+// more than maxLag behind or has not yet applied a commit the current request must see (ReadYourWritesFilter);
+// with none left the read stays on the primary.
+class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    // WAL positions in bytes; on anything but a streaming standby the replica query returns NULL
+    static final String PRIMARY_POSITION_QUERY = "SELECT pg_current_wal_lsn() - '0/0'::pg_lsn";
+    static final String REPLICA_POSITION_QUERY = "SELECT pg_last_wal_replay_lsn() - '0/0'::pg_lsn";
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final String primaryPositionQuery;
+    private final String replicaPositionQuery;
+    private final Deque<Sample> samples = new ArrayDeque<>(); // Lag-check thread only
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder readYourWritesReads = new LongAdder();
+    private final LongAdder noReplicaReads = new LongAdder();
+    private ScheduledExecutorService lagChecks;
+
+    ReadWriteRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools, Duration maxLag,
+                               String primaryPositionQuery, String replicaPositionQuery) {
+        super(primary);
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.maxLag = maxLag;
+        this.primaryPositionQuery = primaryPositionQuery;
+        this.replicaPositionQuery = replicaPositionQuery;
+        setReadOnlyDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return readConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return obtainTargetDataSource().getConnection(username, password);
+            }
+        });
+        afterPropertiesSet();
+    }
+
+    void startLagChecks(Duration interval) {
+        lagChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecks.scheduleWithFixedDelay(this::checkLag, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Notes the primary's WAL position, then how far each replica has replayed. A replica that has replayed past
+    // the position sampled at time t shows every commit made before t. Package-private so tests can run it directly.
+    synchronized void checkLag() {
+        Instant checkedAt = Instant.now();
+        try {
+            Long position = position(obtainTargetDataSource(), primaryPositionQuery);
+            if (position == null) {
+                throw new SQLException("no WAL position returned");
+            }
+            samples.addLast(new Sample(checkedAt, position));
+        } catch (SQLException | RuntimeException e) {
+            // Replicas keep their last reading and age out of use after maxLag
+            log.warn("Could not read the primary's WAL position: {}", e.getMessage());
+            return;
+        }
+        while (samples.size() > 1 && samples.peekFirst().time().isBefore(checkedAt.minus(maxLag))) {
+            samples.removeFirst();
+        }
+
+        for (Replica replica : replicas) {
+            Instant previous = replica.appliedThrough;
+            try {
+                replica.appliedThrough = appliedThrough(position(replica.pool, replicaPositionQuery));
+                if (previous == null && replica.appliedThrough != null) {
+                    log.info("Replica {} is serving reads", replica.getName());
+                } else if (previous != null && replica.appliedThrough == null) {
+                    log.warn("Replica {} is more than {} behind, reads go to the primary", replica.getName(), maxLag);
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.appliedThrough = null;
+                if (previous != null) {
+                    log.warn("Replica {} unavailable, reads go to the primary: {}", replica.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    long getReadYourWritesReads() {
+        return readYourWritesReads.sum();
+    }
+
+    long getNoReplicaReads() {
+        return noReplicaReads.sum();
+    }
+
+    @Override
+    public void close() {
+        if (lagChecks != null) {
+            lagChecks.shutdownNow();
+        }
+        replicas.forEach(replica -> replica.pool.close());
+        // This proxy replaced the primary pool bean, so it is closed here as well
+        if (getTargetDataSource() instanceof HikariDataSource primary) {
+            primary.close();
+        }
+    }
+
+    private Connection readConnection() throws SQLException {
+        Instant mustSee = ReadYourWritesFilter.requiredFreshness();
+        Instant oldestAllowed = Instant.now().minus(maxLag);
+        boolean heldBack = false;
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            Instant applied = replica.appliedThrough;
+            if (applied == null || applied.isBefore(oldestAllowed)) {
+                continue;
+            }
+            if (mustSee != null && applied.isBefore(mustSee)) {
+                heldBack = true;
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replicaReads.increment();
+                ReadYourWritesFilter.readFromReplica(applied);
+                return connection;
+            } catch (SQLException e) {
+                replica.appliedThrough = null; // Until the next lag check reaches it again
+                log.warn("Replica {} unavailable, reads go to the primary: {}", replica.getName(), e.getMessage());
+            }
+        }
+        (heldBack ? readYourWritesReads : noReplicaReads).increment();
+        return obtainTargetDataSource().getConnection();
+    }
+
+    // Time of the newest sample the replica has replayed past; null when it is behind all of them
+    private Instant appliedThrough(Long replayed) {
+        Instant applied = null;
+        if (replayed != null) {
+            for (Sample sample : samples) {
+                if (sample.position() <= replayed) {
+                    applied = sample.time();
+                }
+            }
+        }
+        return applied;
+    }
+
+    private static Long position(DataSource dataSource, String query) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(query)) {
+            if (!result.next()) {
+                return null;
+            }
+            long position = result.getLong(1);
+            return result.wasNull() ? null : position;
+        }
+    }
+
+    private record Sample(Instant time, long position) {
+    }
+
+    static final class Replica {
+        private final HikariDataSource pool;
+        private volatile Instant appliedThrough; // Null while unreachable or too far behind
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        String getName() {
+            return pool.getPoolName();
+        }
+
+        HikariDataSource getPool() {
+            return pool;
+        }
+
+        // An upper bound: commits are only placed to the lag-check interval
+        double getLagSeconds() {
+            Instant applied = appliedThrough;
+            return applied == null ? Double.NaN : Duration.between(applied, Instant.now()).toMillis() / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.bookbeacon.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+// Read-your-writes for replica routing: remembers when each client's last write completed, and while that client's
+// requests run, ReadWriteRoutingDataSource only reads from a replica that has applied it. A client is identified by
+// the X-Client-Id header the frontend sends, or by its address without one.
+// Also keeps ETags honest: a body read from a replica older than the version its ETag names is sent uncacheable.
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String CLIENT_HEADER = "X-Client-Id";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+    private static final ThreadLocal<RequestReads> current = new ThreadLocal<>();
+
+    private final Cache<String, ClientWrites> clients;
+
+    // A replica in use is never more than maxLag behind, so after that long every one of them has the write
+    ReadYourWritesFilter(Duration maxLag) {
+        this.clients = Caffeine.newBuilder().expireAfterWrite(maxLag).maximumSize(100_000).build();
+    }
+
+    // Commit time a replica must have applied to serve this thread's reads; null outside a request
+    static Instant requiredFreshness() {
+        RequestReads reads = current.get();
+        return reads == null ? null : reads.mustSee;
+    }
+
+    // The response carries an ETag / Last-Modified for the data as of this time
+    static void validatorsAsOf(Instant time) {
+        RequestReads reads = current.get();
+        if (reads != null) {
+            reads.validatorsAsOf = time;
+        }
+    }
+
+    // A read-only connection came from a replica that has applied commits up to this time
+    static void readFromReplica(Instant appliedThrough) {
+        RequestReads reads = current.get();
+        if (reads != null && reads.validatorsAsOf != null && appliedThrough.isBefore(reads.validatorsAsOf)
+                && !reads.response.isCommitted()) {
+            // Cached under the current ETag, an older body would be revalidated with 304 until the next change
+            reads.response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(CLIENT_HEADER);
+        String client = header != null && !header.isBlank() ? header : request.getRemoteAddr();
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        // While a write is in flight its reads (and the same client's) stay on the primary: the response may reach
+        // the client before this filter gets to record the completion time
+        ClientWrites writes = write
+                ? clients.asMap().compute(client,
+                        (key, current) -> (current == null ? ClientWrites.NONE : current).started())
+                : clients.getIfPresent(client);
+        current.set(new RequestReads(writes == null ? Instant.MIN : writes.mustSee(), response));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            current.remove();
+            if (write) {
+                Instant completedAt = Instant.now();
+                clients.asMap().compute(client,
+                        (key, current) -> (current == null ? ClientWrites.NONE : current).finished(completedAt));
+            }
+        }
+    }
+
+    private static final class RequestReads {
+        private final Instant mustSee;
+        private final HttpServletResponse response;
+        private Instant validatorsAsOf;
+
+        private RequestReads(Instant mustSee, HttpServletResponse response) {
+            this.mustSee = mustSee;
+            this.response = response;
+        }
+    }
+
+    private record ClientWrites(int inFlight, Instant completedAt) {
+
+        static final ClientWrites NONE = new ClientWrites(0, Instant.MIN);
+
+        ClientWrites started() {
+            return new ClientWrites(inFlight + 1, completedAt);
+        }
+
+        ClientWrites finished(Instant at) {
+            return new ClientWrites(Math.max(0, inFlight - 1), at);
+        }
+
+        Instant mustSee() {
+            return inFlight > 0 ? Instant.MAX : completedAt;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bookbeacon.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs such as the overdue sweep; switch off with bookbeacon.scheduling.enabled=false
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "bookbeacon.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
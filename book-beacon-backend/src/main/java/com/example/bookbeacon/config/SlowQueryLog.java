@@ -0,0 +1,35 @@
+package com.example.bookbeacon.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Logs repository calls slower than the threshold, with the JPQL of @Query methods so the statement is identifiable
+class SlowQueryLog implements RepositoryMethodInvocationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private final long thresholdNanos;
+
+    SlowQueryLog(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        long nanos = invocation.getDuration(TimeUnit.NANOSECONDS);
+        if (nanos < thresholdNanos) {
+            return;
+        }
+        Method method = invocation.getMethod();
+        Query query = method.getAnnotation(Query.class);
+        log.warn("Slow query {}.{} took {} ms ({}): {}", invocation.getRepositoryInterface().getSimpleName(),
+                method.getName(), TimeUnit.NANOSECONDS.toMillis(nanos), invocation.getResult().getState(),
+                query == null ? "derived query" : query.value());
+    }
+}
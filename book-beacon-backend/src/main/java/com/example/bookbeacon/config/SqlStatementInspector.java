@@ -0,0 +1,44 @@
+package com.example.bookbeacon.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Hibernate hands every SQL statement it prepares to this inspector: it counts them for the current request and
+// logs a sample of them, the opt-in replacement for show-sql (bookbeacon.sql-log.sample-rate, 0 = off)
+public class SqlStatementInspector implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger("com.example.bookbeacon.sql");
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    private final double sampleRate;
+
+    public SqlStatementInspector(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = STATEMENTS.get();
+        if (count != null) {
+            count[0]++;
+        }
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("{}", sql);
+        }
+        return sql;
+    }
+
+    static void begin() {
+        STATEMENTS.set(new int[1]);
+    }
+
+    // Statements since begin() on this thread
+    static int end() {
+        int[] count = STATEMENTS.get();
+        STATEMENTS.remove();
+        return count == null ? 0 : count[0];
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bookbeacon.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Records how many SQL statements each endpoint issued, tagged like http.server.requests
+class StatementsPerRequestFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+
+    StatementsPerRequestFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementInspector.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = SqlStatementInspector.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("bookbeacon.db.statements")
+                    .description("SQL statements prepared by Hibernate per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .register(registry)
+                    .record(statements);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.service.CirculationException;
+import com.example.bookbeacon.service.NotFoundException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Maps the services' domain exceptions to responses; controllers only catch what one endpoint answers differently
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(CirculationException.class)
+    public ResponseEntity<String> circulationRefused(CirculationException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<Void> notFound() {
+        return ResponseEntity.notFound().build();
+    }
+
+    // No connection could be had (pool or bulkhead exhausted, database down): tell clients to retry rather than fail
+    // with 500. CannotCreateTransactionException when a transaction could not start, the other two when a query
+    // outside one could not get a connection.
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class,
+            TransientDataAccessResourceException.class})
+    public ResponseEntity<Void> databaseUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+}
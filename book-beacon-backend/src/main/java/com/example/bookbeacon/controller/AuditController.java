@@ -0,0 +1,36 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.dto.AuditEventDTO;
+import com.example.bookbeacon.dto.CursorPageDTO;
+import com.example.bookbeacon.service.AuditLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/audit")
+@CrossOrigin(origins = "http://localhost:8080")
+public class AuditController {
+
+    @Autowired
+    private AuditLog auditLog;
+
+    // Newest first; from is inclusive, to exclusive. Entries appear once the writer has flushed them (about a second)
+    @GetMapping
+    public ResponseEntity<CursorPageDTO<AuditEventDTO>> getEvents(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(auditLog.getEvents(entityType, entityId, from, to, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Malformed cursor
+        }
+    }
+}
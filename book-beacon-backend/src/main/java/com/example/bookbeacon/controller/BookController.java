@@ -1,12 +1,19 @@
 package com.example.bookbeacon.controller;
 
 import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.BookImportResultDTO;
+import com.example.bookbeacon.dto.CursorPageDTO;
+import com.example.bookbeacon.dto.SearchResultDTO;
+import com.example.bookbeacon.service.BookImportService;
 import com.example.bookbeacon.service.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,9 +24,49 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookImportService bookImportService;
+
     @GetMapping
-    public ResponseEntity<List<BookDTO>> getAllBooks() {
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<CursorPageDTO<BookDTO>> getBooks(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(bookService.getBooks(category, author, sort, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Unknown sort key or malformed cursor
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<SearchResultDTO<BookDTO>> searchBooks(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(bookService.searchBooks(q, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Negative or out-of-range page
+        }
+    }
+
+    // The request body is read as a stream, so a vendor feed of any size never sits in memory
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<BookImportResultDTO> importCsv(InputStream body) {
+        return importResponse(bookImportService.importCsv(body));
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BookImportResultDTO> importJson(InputStream body) {
+        return importResponse(bookImportService.importJson(body));
+    }
+
+    @GetMapping("/import/progress")
+    public ResponseEntity<List<BookImportResultDTO>> getRunningImports() {
+        return ResponseEntity.ok(bookImportService.getRunningImports());
     }
 
     @GetMapping("/{id}")
@@ -43,8 +90,6 @@ public class BookController {
             return ResponseEntity.status(HttpStatus.CREATED).body(createdBook);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build(); // ISBN already exists
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
@@ -53,8 +98,8 @@ public class BookController {
         try {
             BookDTO updatedBook = bookService.updateBook(id, bookDTO);
             return ResponseEntity.ok(updatedBook);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // Changed concurrently, e.g. by a loan
         }
     }
 
@@ -63,4 +108,9 @@ public class BookController {
         bookService.deleteBook(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Chunks committed before an unreadable upload stopped are kept; the result says how far it got
+    private ResponseEntity<BookImportResultDTO> importResponse(BookImportResultDTO result) {
+        return result.getAborted() == null ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
 }
\ No newline at end of file
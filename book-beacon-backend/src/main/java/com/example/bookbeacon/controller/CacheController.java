@@ -0,0 +1,23 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.dto.CacheStatsDTO;
+import com.example.bookbeacon.service.LookupCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "http://localhost:8080")
+public class CacheController {
+
+    @Autowired
+    private LookupCache lookupCache;
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(lookupCache.getStats());
+    }
+}
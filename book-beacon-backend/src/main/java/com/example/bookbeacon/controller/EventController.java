@@ -0,0 +1,28 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.service.ChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "http://localhost:8080")
+public class EventController {
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    // "changes" events carry a JSON array of row deltas; "resync" asks the client to reload its lists
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges() {
+        try {
+            return ResponseEntity.ok(changeFeed.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").build();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "http://localhost:8080")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    // GET /api/export/{books|users|transactions}?format=csv|ndjson&after=<last id received>
+    @GetMapping("/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "0") long after) {
+        ExportService.Dataset table;
+        ExportService.Format output;
+        try {
+            table = ExportService.Dataset.valueOf(dataset.toUpperCase(Locale.ROOT));
+            output = ExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String filename = dataset.toLowerCase(Locale.ROOT) + (after > 0 ? "-after-" + after : "") + "." + output.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(output.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(out -> exportService.export(table, output, after, out));
+    }
+}
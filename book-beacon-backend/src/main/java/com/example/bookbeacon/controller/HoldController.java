@@ -0,0 +1,61 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.dto.HoldDTO;
+import com.example.bookbeacon.service.HoldNotifier;
+import com.example.bookbeacon.service.HoldService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/holds")
+@CrossOrigin(origins = "http://localhost:8080")
+public class HoldController {
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private HoldNotifier holdNotifier;
+
+    @PostMapping
+    public ResponseEntity<HoldDTO> placeHold(
+            @RequestParam Long userId,
+            @RequestParam Long bookId) {
+        return ResponseEntity.ok(holdService.placeHold(userId, bookId));
+    }
+
+    // Includes the queue position, read straight off the hold row
+    @GetMapping("/{id}")
+    public ResponseEntity<HoldDTO> getHold(@PathVariable Long id) {
+        return holdService.getHold(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelHold(@PathVariable Long id) {
+        holdService.cancelHold(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<HoldDTO>> getUserHolds(@PathVariable Long userId) {
+        return ResponseEntity.ok(holdService.getUserHolds(userId));
+    }
+
+    @GetMapping("/book/{bookId}")
+    public ResponseEntity<List<HoldDTO>> getBookQueue(@PathVariable Long bookId) {
+        return ResponseEntity.ok(holdService.getBookQueue(bookId));
+    }
+
+    // Server-sent "hold-ready" events for one member
+    @GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamHoldEvents(@PathVariable Long userId) {
+        return holdNotifier.subscribe(userId);
+    }
+}
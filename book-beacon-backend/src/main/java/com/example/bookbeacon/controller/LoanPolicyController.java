@@ -0,0 +1,34 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.service.LoanPolicy;
+import com.example.bookbeacon.service.LoanPolicyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/loan-policy")
+@CrossOrigin(origins = "http://localhost:8080")
+public class LoanPolicyController {
+
+    @Autowired
+    private LoanPolicyService loanPolicyService;
+
+    @GetMapping
+    public ResponseEntity<List<LoanPolicy.Rule>> getRules() {
+        return ResponseEntity.ok(loanPolicyService.current().getRules());
+    }
+
+    // Re-reads the rules file now instead of waiting for the change check; open fines are repriced
+    @PostMapping("/reload")
+    public ResponseEntity<List<LoanPolicy.Rule>> reload() {
+        try {
+            return ResponseEntity.ok(loanPolicyService.reload().getRules());
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            return ResponseEntity.badRequest().build(); // Invalid rules; the previous ones stay in force
+        }
+    }
+}
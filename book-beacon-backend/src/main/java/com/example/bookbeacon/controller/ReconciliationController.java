@@ -0,0 +1,27 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.dto.ReconciliationReportDTO;
+import com.example.bookbeacon.service.InventoryReconciler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reconciliation")
+@CrossOrigin(origins = "http://localhost:8080")
+public class ReconciliationController {
+
+    @Autowired
+    private InventoryReconciler inventoryReconciler;
+
+    // Checks every book and member counter against the loan rows; repair=true also fixes the ones that drifted
+    @PostMapping
+    public ResponseEntity<ReconciliationReportDTO> reconcile(@RequestParam(defaultValue = "false") boolean repair) {
+        try {
+            return ResponseEntity.ok(inventoryReconciler.reconcile(repair));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // Another run in progress
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.dto.StatsDTO;
+import com.example.bookbeacon.service.StatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "http://localhost:8080")
+public class StatsController {
+
+    @Autowired
+    private StatsService statsService;
+
+    @GetMapping
+    public ResponseEntity<StatsDTO> getStats() {
+        return ResponseEntity.ok(statsService.getStats());
+    }
+}
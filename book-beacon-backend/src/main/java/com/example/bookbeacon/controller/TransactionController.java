@@ -1,11 +1,17 @@
 package com.example.bookbeacon.controller;
 
+import com.example.bookbeacon.dto.CursorPageDTO;
+import com.example.bookbeacon.dto.IssueRequestDTO;
+import com.example.bookbeacon.dto.LoanSummaryDTO;
+import com.example.bookbeacon.dto.ReturnRequestDTO;
 import com.example.bookbeacon.dto.TransactionDTO;
 import com.example.bookbeacon.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -16,37 +22,82 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
+    // A refused loan is a CirculationException, answered with 400 and its message by ApiExceptionHandler
     @PostMapping("/issue")
-    public ResponseEntity<?> issueBook(
+    public ResponseEntity<TransactionDTO> issueBook(
             @RequestParam Long userId,
             @RequestParam Long bookId) {
+        TransactionDTO transaction = transactionService.issueBook(userId, bookId);
+        return ResponseEntity.ok(transaction);
+    }
+
+    @PostMapping("/return/{transactionId}")
+    public ResponseEntity<TransactionDTO> returnBook(@PathVariable Long transactionId) {
+        TransactionDTO transaction = transactionService.returnBook(transactionId);
+        return ResponseEntity.ok(transaction);
+    }
+
+    @PostMapping("/issue/batch")
+    public ResponseEntity<?> issueBooks(@RequestBody List<IssueRequestDTO> requests) {
         try {
-            TransactionDTO transaction = transactionService.issueBook(userId, bookId);
-            return ResponseEntity.ok(transaction);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return ResponseEntity.ok(transactionService.issueBooks(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage()); // Too many items
         }
     }
 
-    @PostMapping("/return/{transactionId}")
-    public ResponseEntity<?> returnBook(@PathVariable Long transactionId) {
+    @PostMapping("/return/batch")
+    public ResponseEntity<?> returnBooks(@RequestBody List<ReturnRequestDTO> requests) {
         try {
-            TransactionDTO transaction = transactionService.returnBook(transactionId);
-            return ResponseEntity.ok(transaction);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return ResponseEntity.ok(transactionService.returnBooks(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage()); // Too many items
         }
     }
 
+    @GetMapping
+    public ResponseEntity<CursorPageDTO<TransactionDTO>> getTransactions(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issuedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issuedTo,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactions(
+                    status, userId, bookId, issuedFrom, issuedTo, includeArchived, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Malformed cursor
+        }
+    }
+
+    // Returns a CursorPageDTO (items, nextCursor, size), no longer a bare list: clients read items and pass
+    // nextCursor back as cursor until it comes back null
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<TransactionDTO>> getUserTransactions(@PathVariable Long userId) {
-        List<TransactionDTO> transactions = transactionService.getUserTransactions(userId);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<CursorPageDTO<TransactionDTO>> getUserTransactions(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(transactionService.getUserTransactions(userId, includeArchived, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Malformed cursor
+        }
+    }
+
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<LoanSummaryDTO> getLoanSummary(@PathVariable Long userId) {
+        return ResponseEntity.ok(transactionService.getLoanSummary(userId));
     }
 
     @GetMapping("/book/{bookId}")
-    public ResponseEntity<List<TransactionDTO>> getBookTransactions(@PathVariable Long bookId) {
-        List<TransactionDTO> transactions = transactionService.getBookTransactions(bookId);
+    public ResponseEntity<List<TransactionDTO>> getBookTransactions(
+            @PathVariable Long bookId,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<TransactionDTO> transactions = transactionService.getBookTransactions(bookId, includeArchived);
         return ResponseEntity.ok(transactions);
     }
 }
\ No newline at end of file
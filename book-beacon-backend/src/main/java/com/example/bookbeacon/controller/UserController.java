@@ -1,14 +1,14 @@
 package com.example.bookbeacon.controller;
 
+import com.example.bookbeacon.dto.CursorPageDTO;
 import com.example.bookbeacon.dto.UserDTO;
 import com.example.bookbeacon.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/users")
 @CrossOrigin(origins = "http://localhost:8080")
@@ -18,8 +18,17 @@ public class UserController {
     private UserService userService;
 
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<CursorPageDTO<UserDTO>> getUsers(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(userService.getUsers(role, status, sort, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Unknown sort key or malformed cursor
+        }
     }
 
     @GetMapping("/{id}")
@@ -43,8 +52,6 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build(); // Membership ID already exists
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
@@ -53,8 +60,8 @@ public class UserController {
         try {
             UserDTO updatedUser = userService.updateUser(id, userDTO);
             return ResponseEntity.ok(updatedUser);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // Changed concurrently, e.g. by a loan
         }
     }
 
@@ -0,0 +1,21 @@
+package com.example.bookbeacon.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One audit log entry; details is the JSON written with it
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEventDTO {
+    private Long id;
+    private LocalDateTime occurredAt;
+    private String entityType;
+    private Long entityId;
+    private String action;
+    private String actor;
+    private String details;
+}
@@ -0,0 +1,16 @@
+package com.example.bookbeacon.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// Outcome of one item in a batch issue or return
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDTO {
+    private Integer index; // Position of the item in the request list
+    private Boolean success;
+    private TransactionDTO transaction;
+    private String error;
+}
@@ -0,0 +1,15 @@
+package com.example.bookbeacon.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// A rejected row of a catalog import
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportErrorDTO {
+    private Long row; // 1-based record number, header excluded
+    private String isbn;
+    private String message;
+}
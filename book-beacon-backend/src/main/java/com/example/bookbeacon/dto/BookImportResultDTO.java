@@ -0,0 +1,23 @@
+package com.example.bookbeacon.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+// Progress of a running catalog import, or the outcome of a finished one
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResultDTO {
+    private String importId;
+    private Long rowsRead;
+    private Long inserted;
+    private Long updated;
+    private Long failed;
+    private List<BookImportErrorDTO> errors; // Only the first few; failed has the full count
+    private String aborted; // Why the upload could not be read to the end, if it could not
+    private Long elapsedMillis;
+    private Long rowsPerSecond;
+}
@@ -0,0 +1,35 @@
+package com.example.bookbeacon.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One row's new state on the /api/events stream; only the fields that kind of change carries are sent
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeDTO {
+    private String type; // book, loan, user
+    private String action; // book: created/changed/deleted, loan: issued/returned/overdue, user: changed/deleted
+    private Long id;
+
+    // book
+    private Integer available;
+    private Integer quantity;
+
+    // loan
+    private Long userId;
+    private Long bookId;
+    private LocalDate issueDate;
+    private LocalDate dueDate;
+    private LocalDate returnDate;
+    private BigDecimal fine;
+
+    // loan and user
+    private String status;
+}
@@ -0,0 +1,19 @@
+package com.example.bookbeacon.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// A denormalised counter that disagrees with the loan rows: Book.available or User.booksIssued. Field "quantity"
+// marks an over-issued book instead: recorded is its quantity, expected the copies out, and it is never repaired.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CounterDiscrepancyDTO {
+    private String entityType; // book or user
+    private Long entityId;
+    private String field; // available, booksIssued or quantity
+    private Integer recorded;
+    private Integer expected;
+    private boolean repaired; // False in report-only runs, or when the row changed before the repair
+}
@@ -0,0 +1,24 @@
+package com.example.bookbeacon.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A hold and, while it is waiting, its place in the queue
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldDTO {
+    private Long id;
+    private Long userId;
+    private Long bookId;
+    private String status;
+    private Integer queuePosition; // 1 is next in line; null once the hold has left the queue
+    private LocalDateTime placedAt;
+    private LocalDateTime readyAt;
+    private LocalDateTime expiresAt; // Pick-up deadline while READY
+    private String userName;
+    private String bookTitle;
+}
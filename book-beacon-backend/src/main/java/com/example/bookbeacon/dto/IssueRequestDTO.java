@@ -10,7 +10,9 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 public class IssueRequestDTO {
+    private Long userId; // Either userId/bookId or membershipId/bookIsbn
+    private Long bookId;
     private String membershipId;
     private String bookIsbn; // Renamed to bookIsbn for clarity
-    private LocalDate dueDate;
-}
\ No newline at end of file
+    private LocalDate dueDate; // Optional, defaults to the standard loan period
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.bookbeacon.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+// A member's current-loans panel, computed in one aggregate query
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanSummaryDTO {
+    private Long userId;
+    private Long openLoans;
+    private Long overdueLoans;
+    private BigDecimal outstandingFines; // Accrued on loans that are still out
+    private Long lifetimeLoans;
+}
@@ -0,0 +1,25 @@
+package com.example.bookbeacon.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+// Outcome of one inventory reconciliation run; discrepancies lists at most bookbeacon.reconcile.max-reported rows
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReportDTO {
+    private boolean repair;
+    private long booksChecked;
+    private long usersChecked;
+    private long bookDiscrepancies;
+    private long userDiscrepancies;
+    private long overIssuedBooks; // More copies out on loan or set aside than the book has; needs a person
+    private long repaired;
+    private List<CounterDiscrepancyDTO> discrepancies;
+    private Instant startedAt;
+    private long durationMillis;
+}
@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ReturnRequestDTO {
+    private Long transactionId; // Either transactionId or membershipId/bookIsbn
     private String membershipId;
     private String bookIsbn;
-}
\ No newline at end of file
+}
\ No newline at end of file
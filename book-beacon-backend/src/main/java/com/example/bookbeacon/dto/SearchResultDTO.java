@@ -0,0 +1,18 @@
+package com.example.bookbeacon.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+// One page of ranked search hits
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultDTO<T> {
+    private List<T> items;
+    private Integer total; // Number of matches across all pages
+    private Integer page;
+    private Integer size;
+}
@@ -0,0 +1,24 @@
+package com.example.bookbeacon.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Dashboard totals, served from in-memory counters
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsDTO {
+    private Long totalTitles;
+    private Long totalCopies;
+    private Long availableCopies;
+    private Long totalMembers;
+    private Long activeMembers;
+    private Long openLoans;
+    private Long overdueLoans;
+    private BigDecimal outstandingFines; // Accrued on loans that are still out
+    private Instant reconciledAt;
+}
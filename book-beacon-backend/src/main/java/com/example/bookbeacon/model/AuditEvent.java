@@ -0,0 +1,40 @@
+package com.example.bookbeacon.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Append-only record of one committed mutation; written in batches by AuditLog, never updated
+@Entity
+@Table(name = "audit_events", indexes = {
+    @Index(name = "idx_audit_events_entity", columnList = "entity_type, entity_id, occurred_at"),
+    @Index(name = "idx_audit_events_occurred_at", columnList = "occurred_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at")
+    private LocalDateTime occurredAt;
+
+    @Column(name = "entity_type", length = 32)
+    private String entityType; // book, user, loan, hold, import, sweep
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(length = 32)
+    private String action;
+
+    private String actor; // X-Actor request header, when the client sends one
+
+    @Column(length = 4000)
+    private String details; // JSON object, e.g. changed fields as {"field": [from, to]}
+}
@@ -6,7 +6,11 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+    @Index(name = "idx_books_category_id", columnList = "category, id"),
+    @Index(name = "idx_books_author_id", columnList = "author, id"),
+    @Index(name = "idx_books_title_id", columnList = "title, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,4 +33,8 @@ public class Book {
     private Integer publishedYear;
 
     private String description;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.bookbeacon.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A member's place in the FIFO queue for a title: WAITING, then READY (a copy is set aside) until fulfilled or expired
+@Entity
+@Table(name = "holds", indexes = {
+    @Index(name = "idx_holds_book_status_position", columnList = "book_id, status, queue_position"),
+    @Index(name = "idx_holds_user_status", columnList = "user_id, status"),
+    @Index(name = "idx_holds_status_expires_at", columnList = "status, expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Hold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id")
+    private Book book;
+
+    private String status; // WAITING, READY, FULFILLED, EXPIRED, CANCELLED
+
+    // 1 is next in line; kept dense while WAITING, null afterwards
+    @Column(name = "queue_position")
+    private Integer queuePosition;
+
+    @Column(name = "placed_at")
+    private LocalDateTime placedAt;
+
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,20 @@
+package com.example.bookbeacon.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+// Shared modification counter of one table, so every instance learns of writes handled by the others
+@Entity
+@Table(name = "table_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableVersion {
+    @Id
+    @Column(length = 16)
+    private String name; // books or users
+
+    private Long version;
+}
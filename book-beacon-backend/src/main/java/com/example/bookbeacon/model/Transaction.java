@@ -4,12 +4,20 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_status_due_date", columnList = "status, due_date"),
+    @Index(name = "idx_transactions_user_status", columnList = "user_id, status"),
+    @Index(name = "idx_transactions_book_status", columnList = "book_id, status"),
+    @Index(name = "idx_transactions_status_id", columnList = "status, id"),
+    @Index(name = "idx_transactions_user_issue_date", columnList = "user_id, issue_date DESC, id DESC"),
+    @Index(name = "idx_transactions_archive_candidates", columnList = "archived, status, return_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,11 +26,11 @@ public class Transaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id")
     private Book book;
 
@@ -38,4 +46,9 @@ public class Transaction {
     private String status; // e.g., Issued, Returned, Overdue
 
     private BigDecimal fine;
+
+    // Retired to cold storage by LoanArchiver; open-loan queries and default history leave these rows out
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean archived;
 }
\ No newline at end of file
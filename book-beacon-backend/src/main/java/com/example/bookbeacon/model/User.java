@@ -8,7 +8,11 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_role_id", columnList = "role, id"),
+    @Index(name = "idx_users_status_id", columnList = "status, id"),
+    @Index(name = "idx_users_name_id", columnList = "name, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,4 +39,8 @@ public class User {
 
     @Column(name = "books_issued")
     private Integer booksIssued;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
\ No newline at end of file
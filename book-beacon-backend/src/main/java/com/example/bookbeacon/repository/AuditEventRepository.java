@@ -0,0 +1,34 @@
+package com.example.bookbeacon.repository;
+
+import com.example.bookbeacon.dto.AuditEventDTO;
+import com.example.bookbeacon.model.AuditEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Read side only; AuditLog appends with JDBC batches
+@Repository
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+
+    // Newest first; the cursor is the id of the last row on the previous page
+    @Query("SELECT new com.example.bookbeacon.dto.AuditEventDTO(a.id, a.occurredAt, a.entityType, a.entityId, " +
+           "a.action, a.actor, a.details) FROM AuditEvent a " +
+           "WHERE (:entityType IS NULL OR a.entityType = :entityType) " +
+           "AND (:entityId IS NULL OR a.entityId = :entityId) " +
+           "AND (:from IS NULL OR a.occurredAt >= :from) " +
+           "AND (:to IS NULL OR a.occurredAt < :to) " +
+           "AND a.id < :beforeId ORDER BY a.id DESC")
+    List<AuditEventDTO> findPageDTOs(
+        @Param("entityType") String entityType,
+        @Param("entityId") Long entityId,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        @Param("beforeId") Long beforeId,
+        Pageable pageable
+    );
+}
@@ -1,13 +1,70 @@
 package com.example.bookbeacon.repository;
 
 import com.example.bookbeacon.model.Book;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findByIsbn(String isbn);
     boolean existsByIsbn(String isbn);
+    List<Book> findByIsbnIn(Collection<String> isbns);
+
+    @Query("SELECT COUNT(b) AS titles, COALESCE(SUM(b.quantity), 0) AS copies, " +
+           "COALESCE(SUM(b.available), 0) AS available FROM Book b")
+    CatalogTotals aggregateTotals();
+
+    interface CatalogTotals {
+        long getTitles();
+        long getCopies();
+        long getAvailable();
+    }
+
+    // Row lock that serialises hold queue changes for a title; returns the copies on the shelf
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.available FROM Book b WHERE b.id = :id")
+    Optional<Integer> lockAvailable(@Param("id") Long id);
+
+    // Atomic availability changes; VERSIONED bumps @Version so stale updateBook calls fail optimistically
+    @Modifying
+    @Query("UPDATE VERSIONED Book b SET b.available = b.available - 1 WHERE b.id = :id AND b.available > 0")
+    int decrementAvailable(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE VERSIONED Book b SET b.available = b.available + 1 WHERE b.id = :id AND b.available < b.quantity")
+    int incrementAvailable(@Param("id") Long id);
+
+    // Keyset pages: the Pageable only carries the limit, the cursor carries the position
+    @Query("SELECT b FROM Book b WHERE (:category IS NULL OR b.category = :category) " +
+           "AND (:author IS NULL OR b.author = :author) AND b.id > :afterId ORDER BY b.id")
+    List<Book> findPageOrderById(
+        @Param("category") String category,
+        @Param("author") String author,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    // Untitled books sort last, as in the (title, id) index on PostgreSQL; a null afterTitle is a position among them
+    @Query("SELECT b FROM Book b WHERE (:category IS NULL OR b.category = :category) " +
+           "AND (:author IS NULL OR b.author = :author) " +
+           "AND (:afterTitle IS NULL AND b.title IS NULL AND b.id > :afterId " +
+           "OR :afterTitle IS NOT NULL AND (b.title > :afterTitle OR (b.title = :afterTitle AND b.id > :afterId) " +
+           "OR b.title IS NULL)) ORDER BY b.title NULLS LAST, b.id")
+    List<Book> findPageOrderByTitle(
+        @Param("category") String category,
+        @Param("author") String author,
+        @Param("afterTitle") String afterTitle,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.bookbeacon.repository;
+
+import com.example.bookbeacon.dto.HoldDTO;
+import com.example.bookbeacon.model.Hold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Queue changes are only made while holding the book's row lock (BookRepository.lockAvailable)
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    String DTO_SELECT = "SELECT new com.example.bookbeacon.dto.HoldDTO(h.id, u.id, b.id, h.status, h.queuePosition, " +
+            "h.placedAt, h.readyAt, h.expiresAt, u.name, b.title) FROM Hold h JOIN h.user u JOIN h.book b ";
+
+    // Queue position is stored on the row, so reading it is a primary key lookup
+    @Query(DTO_SELECT + "WHERE h.id = :id")
+    Optional<HoldDTO> findDTOById(@Param("id") Long id);
+
+    @Query(DTO_SELECT + "WHERE u.id = :userId AND h.status IN ('WAITING', 'READY') ORDER BY h.id")
+    List<HoldDTO> findActiveDTOsByUserId(@Param("userId") Long userId);
+
+    @Query(DTO_SELECT + "WHERE b.id = :bookId AND h.status = 'WAITING' ORDER BY h.queuePosition")
+    List<HoldDTO> findQueueDTOsByBookId(@Param("bookId") Long bookId);
+
+    @Query("SELECT COUNT(h) > 0 FROM Hold h WHERE h.user.id = :userId AND h.book.id = :bookId " +
+           "AND h.status IN ('WAITING', 'READY')")
+    boolean existsActive(@Param("userId") Long userId, @Param("bookId") Long bookId);
+
+    @Query("SELECT COUNT(h) FROM Hold h WHERE h.book.id = :bookId AND h.status = 'WAITING'")
+    int countWaiting(@Param("bookId") Long bookId);
+
+    @Query("SELECT h.id AS id, h.user.id AS userId FROM Hold h " +
+           "WHERE h.book.id = :bookId AND h.status = 'WAITING' AND h.queuePosition = 1")
+    Optional<QueueEntry> findFrontOfQueue(@Param("bookId") Long bookId);
+
+    interface QueueEntry {
+        Long getId();
+        Long getUserId();
+    }
+
+    @Query("SELECT h.id FROM Hold h WHERE h.user.id = :userId AND h.book.id = :bookId AND h.status = 'READY'")
+    Optional<Long> findReadyId(@Param("userId") Long userId, @Param("bookId") Long bookId);
+
+    // Closes the gap a departing hold leaves, one statement however long the queue
+    @Modifying
+    @Query("UPDATE Hold h SET h.queuePosition = h.queuePosition - 1 " +
+           "WHERE h.book.id = :bookId AND h.status = 'WAITING' AND h.queuePosition > :position")
+    int closeGap(@Param("bookId") Long bookId, @Param("position") int position);
+
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = 'READY', h.queuePosition = NULL, h.readyAt = :readyAt, " +
+           "h.expiresAt = :expiresAt WHERE h.id = :id AND h.status = 'WAITING'")
+    int markReady(@Param("id") Long id, @Param("readyAt") LocalDateTime readyAt,
+                  @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Conditional status moves: 0 means another request got there first
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = :to, h.queuePosition = NULL WHERE h.id = :id AND h.status = :from")
+    int moveStatus(@Param("id") Long id, @Param("from") String from, @Param("to") String to);
+
+    @Query("SELECT h.id FROM Hold h WHERE h.status = 'READY' AND h.expiresAt < :now ORDER BY h.expiresAt")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Titles whose copies are on the shelf while members wait, e.g. after stock was added
+    @Query("SELECT DISTINCT h.book.id FROM Hold h WHERE h.status = 'WAITING' AND h.book.available > 0")
+    List<Long> findBookIdsWithWaitingHoldsAndShelfCopies();
+}
@@ -1,24 +1,141 @@
 package com.example.bookbeacon.repository;
 
+import com.example.bookbeacon.dto.TransactionDTO;
 import com.example.bookbeacon.model.Transaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByUserId(Long userId);
-    List<Transaction> findByBookId(Long bookId);
-    List<Transaction> findByStatus(String status);
-    List<Transaction> findByUserIdAndStatus(Long userId, String status);
-    List<Transaction> findByBookIdAndStatus(Long bookId, String status);
+
+    // Exactly the columns TransactionDTO needs, selected in one joined statement
+    String DTO_SELECT = "SELECT new com.example.bookbeacon.dto.TransactionDTO(t.id, u.id, b.id, t.issueDate, " +
+            "t.dueDate, t.returnDate, t.status, t.fine, u.name, b.title, b.isbn) " +
+            "FROM Transaction t JOIN t.user u JOIN t.book b ";
+
+    // Entity finders fetch user and book in the same statement instead of one select per row.
+    // Open loans are never archived; "archived = false" lets PostgreSQL skip the cold partitions
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.status = :status AND t.archived = false")
+    List<Transaction> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") String status);
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("SELECT t FROM Transaction t WHERE t.book.id = :bookId AND t.status = :status AND t.archived = false")
+    List<Transaction> findByBookIdAndStatus(@Param("bookId") Long bookId, @Param("status") String status);
+    @EntityGraph(attributePaths = {"user", "book"})
+    Optional<Transaction> findDetailedById(Long id);
+
+    // Member history, newest first; both pages walk the (user_id, issue_date desc) index.
+    // archived is [false], or [false, true] when the caller asked for archived loans as well.
+    @Query(DTO_SELECT + "WHERE t.user.id = :userId AND t.archived IN :archived ORDER BY t.issueDate DESC, t.id DESC")
+    List<TransactionDTO> findHistoryFirstPage(
+        @Param("userId") Long userId,
+        @Param("archived") Collection<Boolean> archived,
+        Pageable pageable
+    );
+
+    @Query(DTO_SELECT + "WHERE t.user.id = :userId AND t.archived IN :archived " +
+           "AND (t.issueDate < :beforeDate OR (t.issueDate = :beforeDate AND t.id < :beforeId)) " +
+           "ORDER BY t.issueDate DESC, t.id DESC")
+    List<TransactionDTO> findHistoryPage(
+        @Param("userId") Long userId,
+        @Param("archived") Collection<Boolean> archived,
+        @Param("beforeDate") LocalDate beforeDate,
+        @Param("beforeId") Long beforeId,
+        Pageable pageable
+    );
+
+    // Lifetime count spans the archive; the open-loan figures only ever come from hot rows
+    @Query("SELECT COUNT(t) AS lifetimeLoans, " +
+           "COALESCE(SUM(CASE WHEN t.status IN ('ISSUED', 'OVERDUE') THEN 1 ELSE 0 END), 0) AS openLoans, " +
+           "COALESCE(SUM(CASE WHEN t.status = 'OVERDUE' THEN 1 ELSE 0 END), 0) AS overdueLoans, " +
+           "COALESCE(SUM(CASE WHEN t.status = 'OVERDUE' THEN t.fine ELSE 0 END), 0) AS outstandingFines " +
+           "FROM Transaction t WHERE t.user.id = :userId")
+    MemberLoanTotals aggregateMemberLoans(@Param("userId") Long userId);
+
+    interface MemberLoanTotals {
+        long getLifetimeLoans();
+        long getOpenLoans();
+        long getOverdueLoans();
+        BigDecimal getOutstandingFines();
+    }
+
+    @Query(DTO_SELECT + "WHERE b.id = :bookId AND t.archived IN :archived ORDER BY t.id")
+    List<TransactionDTO> findDTOsByBookId(@Param("bookId") Long bookId,
+                                          @Param("archived") Collection<Boolean> archived);
+
+    // Overdue sweep: the (status, due_date) index serves both statements
+    @Query("SELECT t.id FROM Transaction t WHERE t.status = 'ISSUED' AND t.dueDate < :today AND t.archived = false")
+    List<Long> findNewlyOverdueIds(@Param("today") LocalDate today, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = 'OVERDUE' " +
+           "WHERE t.id IN :ids AND t.status = 'ISSUED' AND t.archived = false")
+    int markOverdue(@Param("ids") Collection<Long> ids);
+
+    @Query(DTO_SELECT + "WHERE t.id IN :ids")
+    List<TransactionDTO> findDTOsByIds(@Param("ids") Collection<Long> ids);
+
+    // Fine recalculation: LoanPolicyService splits this id range into slices and walks each by id
+    @Query("SELECT MIN(t.id) AS low, MAX(t.id) AS high FROM Transaction t " +
+           "WHERE t.status = 'OVERDUE' AND t.archived = false")
+    IdRange findOverdueIdRange();
+
+    interface IdRange {
+        Long getLow();
+        Long getHigh();
+    }
+
+    // The terms that price each loan's fine: the member's role and the book's category
+    @Query("SELECT t.id AS id, t.dueDate AS dueDate, t.fine AS fine, u.role AS role, b.category AS category " +
+           "FROM Transaction t JOIN t.user u JOIN t.book b WHERE t.status = 'OVERDUE' AND t.archived = false " +
+           "AND t.id > :afterId AND t.id <= :toId ORDER BY t.id")
+    List<OverdueLoan> findOverdueLoans(@Param("afterId") Long afterId, @Param("toId") Long toId, Pageable pageable);
+
+    interface OverdueLoan {
+        Long getId();
+        LocalDate getDueDate();
+        BigDecimal getFine();
+        String getRole();
+        String getCategory();
+    }
+
+    @Query("SELECT COUNT(t) AS openLoans, " +
+           "COALESCE(SUM(CASE WHEN t.status = 'OVERDUE' THEN 1 ELSE 0 END), 0) AS overdueLoans, " +
+           "COALESCE(SUM(CASE WHEN t.status = 'OVERDUE' THEN t.fine ELSE 0 END), 0) AS outstandingFines " +
+           "FROM Transaction t WHERE t.status IN ('ISSUED', 'OVERDUE') AND t.archived = false")
+    LoanTotals aggregateOpenLoans();
+
+    interface LoanTotals {
+        long getOpenLoans();
+        long getOverdueLoans();
+        BigDecimal getOutstandingFines();
+    }
+
+    // Returns 0 when another request already returned this loan
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.status = 'RETURNED', t.returnDate = :returnDate, t.fine = :fine " +
+           "WHERE t.id = :id AND t.status <> 'RETURNED' AND t.archived = false")
+    int markReturned(@Param("id") Long id, @Param("returnDate") LocalDate returnDate, @Param("fine") BigDecimal fine);
+
+    @Query("SELECT COUNT(t) > 0 FROM Transaction t WHERE t.user.id = :userId AND t.book.id = :bookId " +
+           "AND t.status IN ('ISSUED', 'OVERDUE') AND t.archived = false")
+    boolean existsOpenLoan(@Param("userId") Long userId, @Param("bookId") Long bookId);
     
     // Custom query to find transaction by user's membership ID and book ID
-    @Query("SELECT t FROM Transaction t WHERE t.user.membershipId = :membershipId AND t.book.id = :bookId AND t.status = :status")
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("SELECT t FROM Transaction t WHERE t.user.membershipId = :membershipId AND t.book.id = :bookId " +
+           "AND t.status = :status AND t.archived = false")
     Optional<Transaction> findByUserMembershipIdAndBookIdAndStatus(
         @Param("membershipId") String membershipId, 
         @Param("bookId") Long bookId, 
@@ -26,9 +143,40 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     );
     
     // Custom query to find active transactions for a user by membership ID
-    @Query("SELECT t FROM Transaction t WHERE t.user.membershipId = :membershipId AND t.status = :status")
+    @EntityGraph(attributePaths = {"user", "book"})
+    @Query("SELECT t FROM Transaction t WHERE t.user.membershipId = :membershipId AND t.status = :status " +
+           "AND t.archived = false")
     List<Transaction> findByUserMembershipIdAndStatus(
         @Param("membershipId") String membershipId, 
         @Param("status") String status
     );
+
+    // Global listing, newest first
+    @Query(DTO_SELECT + "WHERE (:status IS NULL OR t.status = :status) " +
+           "AND (:userId IS NULL OR u.id = :userId) " +
+           "AND (:bookId IS NULL OR b.id = :bookId) " +
+           "AND (:issuedFrom IS NULL OR t.issueDate >= :issuedFrom) " +
+           "AND (:issuedTo IS NULL OR t.issueDate <= :issuedTo) " +
+           "AND t.archived IN :archived AND t.id < :beforeId ORDER BY t.id DESC")
+    List<TransactionDTO> findPageDTOs(
+        @Param("status") String status,
+        @Param("userId") Long userId,
+        @Param("bookId") Long bookId,
+        @Param("issuedFrom") LocalDate issuedFrom,
+        @Param("issuedTo") LocalDate issuedTo,
+        @Param("archived") Collection<Boolean> archived,
+        @Param("beforeId") Long beforeId,
+        Pageable pageable
+    );
+
+    // Archiver: returned loans old enough to retire, through the (archived, status, return_date) index
+    @Query("SELECT t.id FROM Transaction t WHERE t.archived = false AND t.status = 'RETURNED' " +
+           "AND t.returnDate < :cutoff")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDate cutoff, Pageable pageable);
+
+    // On PostgreSQL flipping the flag moves each row from the hot partition into a cold one
+    @Modifying
+    @Query("UPDATE Transaction t SET t.archived = true WHERE t.id IN :ids AND t.archived = false " +
+           "AND t.status = 'RETURNED'")
+    int markArchived(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -1,13 +1,62 @@
 package com.example.bookbeacon.repository;
 
 import com.example.bookbeacon.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByMembershipId(String membershipId);
     boolean existsByMembershipId(String membershipId);
+    List<User> findByMembershipIdIn(Collection<String> membershipIds);
+
+    @Query("SELECT COUNT(u) AS members, " +
+           "COALESCE(SUM(CASE WHEN u.status = 'Active' THEN 1 ELSE 0 END), 0) AS activeMembers FROM User u")
+    MemberTotals aggregateTotals();
+
+    interface MemberTotals {
+        long getMembers();
+        long getActiveMembers();
+    }
+
+    // Atomic loan-count changes; VERSIONED bumps @Version so stale updateUser calls fail optimistically
+    @Modifying
+    @Query("UPDATE VERSIONED User u SET u.booksIssued = u.booksIssued + 1 WHERE u.id = :id AND u.booksIssued < :limit")
+    int incrementBooksIssued(@Param("id") Long id, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE VERSIONED User u SET u.booksIssued = u.booksIssued - 1 WHERE u.id = :id AND u.booksIssued > 0")
+    int decrementBooksIssued(@Param("id") Long id);
+
+    // Keyset pages: the Pageable only carries the limit, the cursor carries the position
+    @Query("SELECT u FROM User u WHERE (:role IS NULL OR u.role = :role) " +
+           "AND (:status IS NULL OR u.status = :status) AND u.id > :afterId ORDER BY u.id")
+    List<User> findPageOrderById(
+        @Param("role") String role,
+        @Param("status") String status,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    // Unnamed members sort last, as in the (name, id) index on PostgreSQL; a null afterName is a position among them
+    @Query("SELECT u FROM User u WHERE (:role IS NULL OR u.role = :role) " +
+           "AND (:status IS NULL OR u.status = :status) " +
+           "AND (:afterName IS NULL AND u.name IS NULL AND u.id > :afterId " +
+           "OR :afterName IS NOT NULL AND (u.name > :afterName OR (u.name = :afterName AND u.id > :afterId) " +
+           "OR u.name IS NULL)) ORDER BY u.name NULLS LAST, u.id")
+    List<User> findPageOrderByName(
+        @Param("role") String role,
+        @Param("status") String status,
+        @Param("afterName") String afterName,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
 }
\ No newline at end of file
@@ -0,0 +1,293 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.AuditEventDTO;
+import com.example.bookbeacon.dto.CursorPageDTO;
+import com.example.bookbeacon.repository.AuditEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Write-behind audit log. record() only puts an entry on a bounded ring buffer once the caller's transaction commits;
+// a single writer thread drains it into audit_events with JDBC batches, so a mutation pays no extra INSERT.
+// If the buffer is full the caller waits up to full-wait, then the entry is dropped and counted. Only an unreachable
+// database holds the writer up; a row the database refuses is dropped and logged so it cannot block the rows behind it.
+@Service
+public class AuditLog implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final String INSERT = "INSERT INTO audit_events "
+            + "(occurred_at, entity_type, entity_id, action, actor, details) VALUES (?, ?, ?, ?, ?, ?)";
+    // Column sizes in V5__audit_events.sql; actor comes from a client header and details can be any size
+    private static final int ACTOR_LENGTH = 255;
+    private static final int DETAILS_LENGTH = 4000;
+
+    record Entry(LocalDateTime occurredAt, String entityType, Long entityId, String action, String actor,
+                 String details) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditEventRepository auditEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bookbeacon.audit.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${bookbeacon.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${bookbeacon.audit.flush-interval:PT1S}")
+    private Duration flushInterval;
+
+    @Value("${bookbeacon.audit.full-wait:PT0.1S}")
+    private Duration fullWait;
+
+    private BlockingQueue<Entry> buffer;
+    private Thread writer;
+    private volatile boolean running = true;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        writer = new Thread(this::drainLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Whatever is still buffered is written before the datasource goes away
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        flush();
+    }
+
+    public void record(String entityType, Long entityId, String action, Map<String, ?> details) {
+        Entry entry = new Entry(LocalDateTime.now(), entityType, entityId, action,
+                truncate(currentActor(), ACTOR_LENGTH), detailsJson(details));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Rolled-back changes never reach the log
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    // Details from alternating keys and values; unlike Map.of, values may be null
+    public static Map<String, Object> details(Object... keysAndValues) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            details.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return details;
+    }
+
+    // Adds {"field": [from, to]} when the value changed, for update entries
+    public static void putChange(Map<String, Object> changes, String field, Object from, Object to) {
+        if (!Objects.equals(from, to)) {
+            changes.put(field, Arrays.asList(from, to));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AuditEventDTO> getEvents(String entityType, Long entityId, LocalDateTime from,
+                                                  LocalDateTime to, String cursor, Integer size) {
+        int pageSize = PageCursor.clampSize(size);
+        long beforeId = cursor == null || cursor.isEmpty() ? Long.MAX_VALUE : PageCursor.decode(cursor).getLastId();
+        List<AuditEventDTO> events = auditEventRepository.findPageDTOs(
+                entityType, entityId, from, to, beforeId, PageRequest.of(0, pageSize + 1));
+
+        String nextCursor = null;
+        if (events.size() > pageSize) {
+            events = events.subList(0, pageSize);
+            nextCursor = PageCursor.after(null, events.get(pageSize - 1).getId()).encode();
+        }
+        return new CursorPageDTO<>(events, nextCursor, pageSize);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bookbeacon.audit.buffered", this, audit -> audit.buffer.size())
+                .description("Audit entries waiting for the writer")
+                .register(registry);
+        FunctionCounter.builder("bookbeacon.audit.written", written, AtomicLong::get)
+                .description("Audit entries written to audit_events")
+                .register(registry);
+        FunctionCounter.builder("bookbeacon.audit.dropped", dropped, AtomicLong::get)
+                .description("Audit entries lost because the buffer stayed full")
+                .register(registry);
+    }
+
+    // Writes everything buffered so far on the calling thread; used on shutdown and by tests
+    void flush() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            if (!write(batch)) {
+                dropped.addAndGet(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        try {
+            if (!buffer.offer(entry) && !buffer.offer(entry, fullWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                dropped.incrementAndGet();
+                log.warn("Audit buffer full, dropped {} {} {}", entry.action(), entry.entityType(), entry.entityId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.incrementAndGet();
+        }
+    }
+
+    // Waits for the first entry, then takes whatever else is already buffered, up to a batch
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Entry first = buffer.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                while (!write(batch)) {
+                    Thread.sleep(flushInterval.toMillis()); // Database unavailable: keep the batch and retry
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts; the batch in hand gets one last try, the final flush picks up the rest
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+                return;
+            }
+        }
+    }
+
+    // Removes what it wrote or dropped from the batch; returns false, leaving the rest in place, when the database is
+    // unreachable and the remainder should be retried
+    private boolean write(List<Entry> batch) {
+        try {
+            insert(batch);
+            written.addAndGet(batch.size());
+            batch.clear();
+            return true;
+        } catch (RuntimeException e) {
+            if (e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                    || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException) {
+                log.warn("Writing {} audit entries failed, will retry: {}", batch.size(), e.getMessage());
+                return false;
+            }
+            if (batch.size() == 1) {
+                Entry entry = batch.get(0);
+                dropped.incrementAndGet();
+                log.error("Audit entry {} {} {} rejected, dropped", entry.action(), entry.entityType(),
+                        entry.entityId(), e);
+                batch.clear();
+                return true;
+            }
+            // One refused row fails the whole JDBC batch: halve until it is on its own
+            return write(batch.subList(0, batch.size() / 2)) && write(batch);
+        }
+    }
+
+    // All or nothing, so a batch that fails part-way can be retried or split without writing rows twice
+    private void insert(List<Entry> batch) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, entry) -> {
+                    statement.setTimestamp(1, Timestamp.valueOf(entry.occurredAt()));
+                    statement.setString(2, entry.entityType());
+                    if (entry.entityId() == null) {
+                        statement.setNull(3, Types.BIGINT);
+                    } else {
+                        statement.setLong(3, entry.entityId());
+                    }
+                    statement.setString(4, entry.action());
+                    statement.setString(5, entry.actor());
+                    statement.setString(6, entry.details());
+                }));
+    }
+
+    // Cutting the JSON would leave it unparseable; oversized details become a marker with their length instead
+    private String detailsJson(Map<String, ?> details) {
+        String json = toJson(details);
+        return json == null || json.length() <= DETAILS_LENGTH
+                ? json : toJson(details("truncated", true, "length", json.length()));
+    }
+
+    private String toJson(Map<String, ?> details) {
+        if (details == null || details.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(details);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static String truncate(String value, int length) {
+        return value == null || value.length() <= length ? value : value.substring(0, length);
+    }
+
+    private static String currentActor() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet
+                ? servlet.getRequest().getHeader("X-Actor") : null;
+    }
+}
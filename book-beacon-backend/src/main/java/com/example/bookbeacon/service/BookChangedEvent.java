@@ -0,0 +1,10 @@
+package com.example.bookbeacon.service;
+
+// A book's availability or stock changed, or it was just created; the change feed reads the current values when it
+// next flushes
+public record BookChangedEvent(Long bookId, boolean created) {
+
+    public BookChangedEvent(Long bookId) {
+        this(bookId, false);
+    }
+}
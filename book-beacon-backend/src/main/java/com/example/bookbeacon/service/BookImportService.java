@@ -0,0 +1,355 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.BookImportErrorDTO;
+import com.example.bookbeacon.dto.BookImportResultDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.repository.BookRepository;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+// Streams a vendor feed into the catalog a chunk at a time: one IN query classifies the chunk, JDBC batches write it
+@Service
+public class BookImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO books (title, author, category, isbn, quantity, available, "
+            + "published_year, description, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    // Copies on loan stay on loan: available moves by the change in quantity, and may not go below zero
+    private static final String UPDATE_SQL = "UPDATE books SET title = ?, author = ?, category = ?, "
+            + "available = available + (? - quantity), quantity = ?, published_year = ?, description = ?, "
+            + "version = version + 1 WHERE id = ? AND available + (? - quantity) >= 0";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogSearchIndex searchIndex;
+
+    @Autowired
+    private LookupCache lookupCache;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Value("${bookbeacon.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${bookbeacon.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private final Map<String, ImportRun> running = new ConcurrentHashMap<>();
+
+    // Header row names the columns, in any order: title, isbn, and optionally author, category, quantity,
+    // publishedYear (or published_year) and description
+    public BookImportResultDTO importCsv(InputStream input) {
+        return execute(run -> {
+            CsvReader csv = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            List<String> header = csv.next();
+            if (header == null) {
+                return;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).replace("\uFEFF", "").toLowerCase(Locale.ROOT).replaceAll("[^a-z]", ""), i);
+            }
+            if (!columns.containsKey("title") || !columns.containsKey("isbn")) {
+                throw new IllegalArgumentException("CSV header must name at least the title and isbn columns");
+            }
+            List<String> fields;
+            while ((fields = csv.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                BookDTO book = new BookDTO();
+                try {
+                    book.setTitle(column(fields, columns, "title"));
+                    book.setIsbn(column(fields, columns, "isbn"));
+                    book.setAuthor(column(fields, columns, "author"));
+                    book.setCategory(column(fields, columns, "category"));
+                    book.setQuantity(integerColumn(fields, columns, "quantity"));
+                    book.setPublishedYear(integerColumn(fields, columns, "publishedyear"));
+                    book.setDescription(column(fields, columns, "description"));
+                } catch (IllegalArgumentException e) {
+                    run.reject(book.getIsbn(), e.getMessage());
+                    continue;
+                }
+                run.accept(book);
+            }
+        });
+    }
+
+    // A JSON array of books, or newline-delimited JSON with one book per line
+    public BookImportResultDTO importJson(InputStream input) {
+        return execute(run -> {
+            try (MappingIterator<BookDTO> books = objectMapper.readerFor(BookDTO.class).readValues(input)) {
+                while (books.hasNextValue()) {
+                    BookDTO book;
+                    try {
+                        book = books.nextValue();
+                    } catch (JsonMappingException e) {
+                        // Well-formed JSON that does not fit a book; the iterator skips to the next element
+                        run.reject(null, e.getOriginalMessage());
+                        continue;
+                    }
+                    run.accept(book);
+                }
+            }
+        });
+    }
+
+    public List<BookImportResultDTO> getRunningImports() {
+        return running.values().stream().map(ImportRun::snapshot).collect(Collectors.toList());
+    }
+
+    private BookImportResultDTO execute(ImportBody body) {
+        ImportRun run = new ImportRun();
+        running.put(run.id, run);
+        try {
+            body.read(run);
+        } catch (IOException | IllegalArgumentException e) {
+            run.aborted = e.getMessage();
+        } finally {
+            run.flush();
+            running.remove(run.id);
+        }
+        BookImportResultDTO result = run.snapshot();
+        if (result.getInserted() + result.getUpdated() > 0) {
+            tableVersions.bump(TableVersions.Table.BOOKS);
+            // One entry per import rather than one per row
+            auditLog.record("import", null, "imported", AuditLog.details("importId", result.getImportId(),
+                    "inserted", result.getInserted(), "updated", result.getUpdated(), "failed", result.getFailed()));
+            changeFeed.requestResync(); // Open screens reload once rather than take a delta per imported row
+        }
+        log.info("Catalog import {}: {} rows, {} inserted, {} updated, {} failed in {} ms{}", run.id,
+                result.getRowsRead(), result.getInserted(), result.getUpdated(), result.getFailed(),
+                result.getElapsedMillis(), run.aborted == null ? "" : ", aborted: " + run.aborted);
+        return result;
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer integerColumn(List<String> fields, Map<String, Integer> columns, String name) {
+        String value = column(fields, columns, name);
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a whole number: " + value);
+        }
+    }
+
+    private interface ImportBody {
+        void read(ImportRun run) throws IOException;
+    }
+
+    private final class ImportRun {
+        private final String id = UUID.randomUUID().toString();
+        private final long startedAt = System.nanoTime();
+        // Keyed by ISBN, so a chunk never holds the same title twice
+        private final Map<String, Row> chunk = new LinkedHashMap<>();
+        private final List<BookImportErrorDTO> errors = new CopyOnWriteArrayList<>();
+        private volatile long rowsRead;
+        private volatile long inserted;
+        private volatile long updated;
+        private volatile long failed;
+        private volatile String aborted;
+
+        private void accept(BookDTO book) {
+            long row = ++rowsRead;
+            String problem = validate(book);
+            if (problem != null) {
+                fail(row, book.getIsbn(), problem);
+                return;
+            }
+            if (chunk.containsKey(book.getIsbn())) {
+                flush(); // A repeated ISBN then updates the copy written by the earlier row
+            }
+            chunk.put(book.getIsbn(), new Row(row, book));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void reject(String isbn, String message) {
+            fail(++rowsRead, isbn, message);
+        }
+
+        private void fail(long row, String isbn, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new BookImportErrorDTO(row, isbn, message));
+            }
+        }
+
+        private String validate(BookDTO book) {
+            if (book.getIsbn() == null || book.getIsbn().isBlank()) {
+                return "isbn is required";
+            }
+            if (book.getTitle() == null || book.getTitle().isBlank()) {
+                return "title is required";
+            }
+            if (book.getQuantity() == null || book.getQuantity() < 0) {
+                return "quantity must be zero or more";
+            }
+            return null;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Row> rows = new ArrayList<>(chunk.values());
+            chunk.clear();
+            ChunkOutcome outcome;
+            try {
+                outcome = writeChunk(rows);
+            } catch (DuplicateKeyException e) {
+                // An ISBN was created by someone else since the lookup; classify again and retry once
+                try {
+                    outcome = writeChunk(rows);
+                } catch (RuntimeException retryFailure) {
+                    rows.forEach(row -> fail(row.number, row.book.getIsbn(), retryFailure.getMessage()));
+                    return;
+                }
+            } catch (RuntimeException e) {
+                rows.forEach(row -> fail(row.number, row.book.getIsbn(), e.getMessage()));
+                return;
+            }
+            inserted += outcome.inserted;
+            updated += outcome.updated;
+            outcome.rejected.forEach(row -> fail(row.number, row.book.getIsbn(),
+                    "quantity " + row.book.getQuantity() + " is below the copies currently on loan"));
+            refreshReaders(rows, outcome);
+        }
+
+        private ChunkOutcome writeChunk(List<Row> rows) {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                Map<String, Book> existing = bookRepository.findByIsbnIn(
+                                rows.stream().map(row -> row.book.getIsbn()).collect(Collectors.toList()))
+                        .stream().collect(Collectors.toMap(Book::getIsbn, book -> book));
+                List<Object[]> inserts = new ArrayList<>();
+                List<Object[]> updates = new ArrayList<>();
+                List<Row> updateRows = new ArrayList<>();
+                long copies = 0;
+                for (Row row : rows) {
+                    BookDTO book = row.book;
+                    Book current = existing.get(book.getIsbn());
+                    if (current == null) {
+                        inserts.add(new Object[]{book.getTitle(), book.getAuthor(), book.getCategory(), book.getIsbn(),
+                                book.getQuantity(), book.getQuantity(), book.getPublishedYear(), book.getDescription()});
+                        copies += book.getQuantity();
+                    } else {
+                        updates.add(new Object[]{book.getTitle(), book.getAuthor(), book.getCategory(),
+                                book.getQuantity(), book.getQuantity(), book.getPublishedYear(), book.getDescription(),
+                                current.getId(), book.getQuantity()});
+                        updateRows.add(row);
+                    }
+                }
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                }
+                ChunkOutcome outcome = new ChunkOutcome(inserts.size(), existing);
+                int[] counts = updates.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                for (int i = 0; i < counts.length; i++) {
+                    Row row = updateRows.get(i);
+                    if (counts[i] == 0) {
+                        outcome.rejected.add(row);
+                    } else {
+                        outcome.updated++;
+                        copies += row.book.getQuantity() - existing.get(row.book.getIsbn()).getQuantity();
+                    }
+                }
+                statsService.recordBooksImported(inserts.size(), copies);
+                return outcome;
+            });
+        }
+
+        // After commit: index what was written and drop lookups of titles that changed
+        private void refreshReaders(List<Row> rows, ChunkOutcome outcome) {
+            if (outcome.inserted == 0 && outcome.updated == 0) {
+                return;
+            }
+            List<String> isbns = rows.stream().map(row -> row.book.getIsbn()).collect(Collectors.toList());
+            outcome.rejected.forEach(row -> isbns.remove(row.book.getIsbn()));
+            for (Book book : bookRepository.findByIsbnIn(isbns)) {
+                searchIndex.index(book);
+                if (outcome.existing.containsKey(book.getIsbn())) {
+                    lookupCache.evictBook(book.getId(), book.getIsbn());
+                }
+            }
+        }
+
+        private BookImportResultDTO snapshot() {
+            long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+            long rows = rowsRead;
+            return new BookImportResultDTO(id, rows, inserted, updated, failed, List.copyOf(errors), aborted,
+                    elapsedMillis, elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis);
+        }
+    }
+
+    private record Row(long number, BookDTO book) {
+    }
+
+    private static final class ChunkOutcome {
+        private final long inserted;
+        private final Map<String, Book> existing;
+        private final List<Row> rejected = new ArrayList<>();
+        private long updated;
+
+        private ChunkOutcome(long inserted, Map<String, Book> existing) {
+            this.inserted = inserted;
+            this.existing = existing;
+        }
+    }
+}
@@ -1,50 +1,151 @@
 package com.example.bookbeacon.service;
 
 import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.CursorPageDTO;
+import com.example.bookbeacon.dto.SearchResultDTO;
 import com.example.bookbeacon.model.Book;
 import com.example.bookbeacon.repository.BookRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class BookService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     @Autowired
     private BookRepository bookRepository;
 
-    public List<BookDTO> getAllBooks() {
-        return bookRepository.findAll().stream()
+    @Autowired
+    private LookupCache lookupCache;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private CatalogSearchIndex searchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookDTO> getBooks(String category, String author, String sort, String cursor, Integer size) {
+        int pageSize = PageCursor.clampSize(size);
+        PageCursor position = PageCursor.decode(cursor);
+        // Fetch one extra row to learn whether another page follows
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<Book> books;
+        if (sort == null || sort.isEmpty() || "id".equals(sort)) {
+            books = bookRepository.findPageOrderById(category, author, position.getLastId(), limit);
+        } else if ("title".equals(sort)) {
+            books = bookRepository.findPageOrderByTitle(
+                    category, author, position.getSortValue(), position.getLastId(), limit);
+        } else {
+            throw new IllegalArgumentException("Unsupported sort key " + sort);
+        }
+
+        String nextCursor = null;
+        if (books.size() > pageSize) {
+            books = books.subList(0, pageSize);
+            Book last = books.get(pageSize - 1);
+            nextCursor = PageCursor.after("title".equals(sort) ? last.getTitle() : null, last.getId()).encode();
+        }
+        List<BookDTO> items = books.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
+        return new CursorPageDTO<>(items, nextCursor, pageSize);
     }
 
+    // Throws IllegalArgumentException for a negative page or one past the last possible offset
+    @Transactional(readOnly = true)
+    public SearchResultDTO<BookDTO> searchBooks(String query, Integer page, Integer size) {
+        int pageSize = Math.min(PageCursor.clampSize(size), MAX_SEARCH_PAGE_SIZE);
+        int pageNumber = page == null ? 0 : page;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        int offset;
+        try {
+            offset = Math.multiplyExact(pageNumber, pageSize);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Page " + pageNumber + " is out of range", e);
+        }
+        CatalogSearchIndex.Hits hits = searchIndex.search(query, offset, pageSize);
+
+        // One query for the page, then back into rank order
+        Map<Long, Book> books = bookRepository.findAllById(hits.bookIds()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<BookDTO> items = hits.bookIds().stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        return new SearchResultDTO<>(items, hits.total(), pageNumber, pageSize);
+    }
+
+    // Read-write, so it is served by the primary: a row read from a lagging replica would stay cached
+    @Cacheable(cacheNames = LookupCache.BOOKS_BY_ID, unless = "#result == null")
+    @Transactional
     public Optional<BookDTO> getBookById(Long id) {
         return bookRepository.findById(id).map(this::convertToDto);
     }
 
+    @Cacheable(cacheNames = LookupCache.BOOKS_BY_ISBN, unless = "#result == null")
+    @Transactional
     public Optional<BookDTO> getBookByIsbn(String isbn) {
         return bookRepository.findByIsbn(isbn).map(this::convertToDto);
     }
 
+    @Transactional
     public BookDTO createBook(BookDTO bookDTO) {
         if (bookRepository.existsByIsbn(bookDTO.getIsbn())) {
             throw new IllegalArgumentException("Book with ISBN " + bookDTO.getIsbn() + " already exists.");
         }
         Book book = convertToEntity(bookDTO);
         book.setAvailable(book.getQuantity()); // Initially, all books are available
-        return convertToDto(bookRepository.save(book));
+        Book saved = bookRepository.save(book);
+        eventPublisher.publishEvent(CatalogEntryChangedEvent.indexed(saved));
+        BookDTO created = convertToDto(saved);
+        statsService.recordBookCreated(created.getQuantity());
+        eventPublisher.publishEvent(new BookChangedEvent(created.getId(), true));
+        auditLog.record("book", created.getId(), "created", AuditLog.details(
+                "isbn", created.getIsbn(), "title", created.getTitle(), "quantity", created.getQuantity()));
+        return created;
     }
 
+    @Transactional
     public BookDTO updateBook(Long id, BookDTO bookDTO) {
         return bookRepository.findById(id).map(existingBook -> {
+            String previousIsbn = existingBook.getIsbn();
             // Calculate new available quantity based on change in total quantity
             int quantityDifference = bookDTO.getQuantity() - existingBook.getQuantity();
             existingBook.setAvailable(existingBook.getAvailable() + quantityDifference);
 
+            Map<String, Object> changes = new LinkedHashMap<>();
+            AuditLog.putChange(changes, "title", existingBook.getTitle(), bookDTO.getTitle());
+            AuditLog.putChange(changes, "author", existingBook.getAuthor(), bookDTO.getAuthor());
+            AuditLog.putChange(changes, "category", existingBook.getCategory(), bookDTO.getCategory());
+            AuditLog.putChange(changes, "isbn", previousIsbn, bookDTO.getIsbn());
+            AuditLog.putChange(changes, "quantity", existingBook.getQuantity(), bookDTO.getQuantity());
+            AuditLog.putChange(changes, "publishedYear", existingBook.getPublishedYear(), bookDTO.getPublishedYear());
+            AuditLog.putChange(changes, "description", existingBook.getDescription(), bookDTO.getDescription());
+
             existingBook.setTitle(bookDTO.getTitle());
             existingBook.setAuthor(bookDTO.getAuthor());
             existingBook.setCategory(bookDTO.getCategory());
@@ -52,15 +153,32 @@ public class BookService {
             existingBook.setQuantity(bookDTO.getQuantity());
             existingBook.setPublishedYear(bookDTO.getPublishedYear());
             existingBook.setDescription(bookDTO.getDescription());
-            return convertToDto(bookRepository.save(existingBook));
-        }).orElseThrow(() -> new RuntimeException("Book not found with id " + id));
+            Book saved = bookRepository.save(existingBook);
+            eventPublisher.publishEvent(CatalogEntryChangedEvent.indexed(saved));
+            BookDTO updated = convertToDto(saved);
+            lookupCache.evictBook(id, previousIsbn);
+            statsService.recordBookQuantityChanged(quantityDifference);
+            eventPublisher.publishEvent(new BookChangedEvent(id));
+            auditLog.record("book", id, "updated", changes);
+            return updated;
+        }).orElseThrow(() -> new NotFoundException("Book not found with id " + id));
     }
 
+    @Transactional
     public void deleteBook(Long id) {
+        Optional<Book> book = bookRepository.findById(id);
         bookRepository.deleteById(id);
+        book.ifPresent(deleted -> {
+            eventPublisher.publishEvent(CatalogEntryChangedEvent.removed(id));
+            lookupCache.evictBook(id, deleted.getIsbn());
+            statsService.recordBookDeleted(deleted.getQuantity(), deleted.getAvailable());
+            eventPublisher.publishEvent(new BookChangedEvent(id));
+            auditLog.record("book", id, "deleted", AuditLog.details(
+                    "isbn", deleted.getIsbn(), "title", deleted.getTitle(), "quantity", deleted.getQuantity()));
+        });
     }
 
-    private BookDTO convertToDto(Book book) {
+    BookDTO convertToDto(Book book) {
         return new BookDTO(
                 book.getId(),
                 book.getTitle(),
@@ -84,7 +202,8 @@ public class BookService {
                 bookDTO.getQuantity(),
                 bookDTO.getAvailable(),
                 bookDTO.getPublishedYear(),
-                bookDTO.getDescription()
+                bookDTO.getDescription(),
+                0L
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.model.Book;
+
+// A book's searchable text was written (book set) or the book was deleted (book null); the search index applies it
+// after the transaction commits
+public record CatalogEntryChangedEvent(Long bookId, Book book) {
+
+    static CatalogEntryChangedEvent indexed(Book book) {
+        return new CatalogEntryChangedEvent(book.getId(), book);
+    }
+
+    static CatalogEntryChangedEvent removed(Long bookId) {
+        return new CatalogEntryChangedEvent(bookId, null);
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// In-process inverted index over the catalog text, kept current by BookService writes once they commit
+@Component
+public class CatalogSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final int ISBN_WEIGHT = 8;
+    private static final int TITLE_WEIGHT = 4;
+    private static final int AUTHOR_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int REBUILD_CHUNK = 1000;
+    // A shorter last word matches only itself: "a" would expand to a sizeable share of all terms
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    // Sorted so a prefix maps to one contiguous range of terms
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    // Terms per book, needed to unindex a book before it is re-indexed or deleted
+    private final Map<Long, Set<String>> documentTerms = new ConcurrentHashMap<>();
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    public record Hits(List<Long> bookIds, int total) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long afterId = 0;
+        List<Book> chunk;
+        do {
+            chunk = bookRepository.findPageOrderById(null, null, afterId, PageRequest.of(0, REBUILD_CHUNK));
+            chunk.forEach(this::index);
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == REBUILD_CHUNK);
+        log.info("Catalog search index built: {} books, {} terms", documentTerms.size(), postings.size());
+    }
+
+    public synchronized void index(Book book) {
+        remove(book.getId());
+        Map<String, Integer> weights = new HashMap<>();
+        if (book.getIsbn() != null) {
+            addTerm(weights, TOKEN_SEPARATOR.matcher(book.getIsbn().toLowerCase(Locale.ROOT)).replaceAll(""), ISBN_WEIGHT);
+        }
+        addTerms(weights, book.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, book.getAuthor(), AUTHOR_WEIGHT);
+        addTerms(weights, book.getCategory(), CATEGORY_WEIGHT);
+        addTerms(weights, book.getDescription(), DESCRIPTION_WEIGHT);
+        weights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(book.getId(), weight));
+        documentTerms.put(book.getId(), weights.keySet());
+    }
+
+    // After commit only, like the lookup cache and the change feed: a write that rolls back (a lost @Version check,
+    // a delete refused by a loan's foreign key) never reaches the index
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEntryChanged(CatalogEntryChangedEvent event) {
+        if (event.book() != null) {
+            index(event.book());
+        } else {
+            remove(event.bookId());
+        }
+    }
+
+    public synchronized void remove(Long bookId) {
+        Set<String> terms = documentTerms.remove(bookId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            postings.computeIfPresent(term, (t, docs) -> {
+                docs.remove(bookId);
+                return docs.isEmpty() ? null : docs;
+            });
+        }
+    }
+
+    // Every query word must match; the last one also matches as a prefix unless the query ends in a space or it is
+    // shorter than MIN_PREFIX_LENGTH. total counts every match, however many terms the prefix expands to.
+    public Hits search(String query, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        List<String> words = new ArrayList<>(tokenize(query));
+        if (words.isEmpty()) {
+            return new Hits(Collections.emptyList(), 0);
+        }
+        boolean typeAhead = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        double documents = Math.max(1, documentTerms.size());
+        List<Clause> clauses = new ArrayList<>();
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            boolean prefix = typeAhead && i == words.size() - 1 && word.length() >= MIN_PREFIX_LENGTH;
+            Clause clause = prefix ? prefixClause(word) : exactClause(word);
+            if (clause.documentFrequency == 0) {
+                return new Hits(Collections.emptyList(), 0);
+            }
+            clause.idf = Math.log(1 + documents / clause.documentFrequency);
+            clauses.add(clause);
+        }
+        clauses.sort(Comparator.comparingInt(c -> c.documentFrequency));
+
+        // Walk the rarest clause and probe the others; keep only the best offset + limit hits
+        int wanted = (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+        int total = 0;
+        Map<Long, Integer> driver = clauses.get(0).candidates();
+        clauses.subList(1, clauses.size()).forEach(clause -> clause.prepareProbes(driver.size()));
+        for (Map.Entry<Long, Integer> candidate : driver.entrySet()) {
+            Long bookId = candidate.getKey();
+            double score = candidate.getValue() * clauses.get(0).idf;
+            boolean matchesAll = true;
+            for (int i = 1; i < clauses.size() && matchesAll; i++) {
+                int weight = clauses.get(i).weight(bookId);
+                matchesAll = weight > 0;
+                score += weight * clauses.get(i).idf;
+            }
+            if (!matchesAll) {
+                continue;
+            }
+            total++;
+            if (best.size() < wanted) {
+                best.add(Map.entry(bookId, score));
+            } else if (wanted > 0 && best.peek().getValue() < score) {
+                best.poll();
+                best.add(Map.entry(bookId, score));
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed());
+        List<Long> page = ranked.stream().skip(offset).map(Map.Entry::getKey).toList();
+        return new Hits(page, total);
+    }
+
+    private Clause exactClause(String word) {
+        Map<Long, Integer> docs = postings.get(word);
+        return docs == null ? new Clause(null, Collections.emptyNavigableMap()) : new Clause(null, new TreeMap<>(Map.of(word, docs)));
+    }
+
+    // Copies the expanded range, so the cost grows with the number of terms the prefix covers; MIN_PREFIX_LENGTH rules
+    // out the one- and two-letter prefixes that cover a large share of the vocabulary
+    private Clause prefixClause(String prefix) {
+        return new Clause(prefix, new TreeMap<>(postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false)));
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            addTerm(weights, token, weight);
+        }
+    }
+
+    private static void addTerm(Map<String, Integer> weights, String term, int weight) {
+        if (!term.isEmpty()) {
+            weights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    // One query word: the indexed terms it stands for (itself, or those it is a prefix of) and their postings
+    private final class Clause {
+        private final String prefix;
+        private final NavigableMap<String, Map<Long, Integer>> terms;
+        private final int documentFrequency;
+        private double idf;
+        private Map<Long, Integer> merged;
+
+        private Clause(String prefix, NavigableMap<String, Map<Long, Integer>> terms) {
+            this.prefix = prefix;
+            this.terms = terms;
+            this.documentFrequency = terms.values().stream().mapToInt(Map::size).sum();
+        }
+
+        // Only the rarest clause is enumerated, so merging several prefix terms here stays cheap
+        private Map<Long, Integer> candidates() {
+            if (terms.size() == 1) {
+                return terms.firstEntry().getValue();
+            }
+            if (merged == null) {
+                merged = new HashMap<>();
+                terms.values().forEach(docs -> docs.forEach((bookId, weight) -> merged.merge(bookId, weight, Math::max)));
+            }
+            return merged;
+        }
+
+        // Merging pays off unless the candidates are far fewer than this clause's postings
+        private void prepareProbes(int candidates) {
+            if (terms.size() > 1 && documentFrequency <= (long) candidates * 8) {
+                candidates();
+            }
+        }
+
+        private int weight(Long bookId) {
+            if (terms.size() == 1) {
+                return terms.firstEntry().getValue().getOrDefault(bookId, 0);
+            }
+            if (merged != null) {
+                return merged.getOrDefault(bookId, 0);
+            }
+            // Few candidates: check the book's own handful of terms instead of every expanded posting list
+            int weight = 0;
+            for (String term : documentTerms.getOrDefault(bookId, Collections.emptySet())) {
+                Map<Long, Integer> docs = term.startsWith(prefix) ? terms.get(term) : null;
+                if (docs != null) { // Terms indexed after this query started are not in its expansion
+                    weight = Math.max(weight, docs.getOrDefault(bookId, 0));
+                }
+            }
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.ChangeDTO;
+import com.example.bookbeacon.dto.TransactionDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fans committed changes out to every GET /api/events stream as small JSON deltas, flushed in batches.
+// Each client gets at most one send in flight: while it is slow, further changes to the same row replace each other
+// in its pending map, and a client with more than max-pending distinct rows outstanding is told to resync instead.
+@Component
+public class ChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+    private static final int BOOK_LOOKUP_CHUNK = 1000;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> changedBooks = ConcurrentHashMap.newKeySet();
+    private final Set<Long> createdBooks = ConcurrentHashMap.newKeySet(); // Subset of changedBooks
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(daemon("change-feed-flush"));
+    private final ExecutorService senders = Executors.newCachedThreadPool(daemon("change-feed-send"));
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${bookbeacon.events.flush-interval:PT0.25S}")
+    private Duration flushInterval;
+
+    @Value("${bookbeacon.events.max-pending:1000}")
+    private int maxPending;
+
+    @Value("${bookbeacon.events.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    @Value("${bookbeacon.events.heartbeat-interval:PT15S}")
+    private Duration heartbeatInterval;
+
+    @Value("${bookbeacon.events.stream-timeout:PT30M}")
+    private Duration streamTimeout;
+
+    @PostConstruct
+    void start() {
+        long millis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    // EventSource clients reconnect on their own when the timeout closes the stream, and reload on reconnect
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many event stream subscribers");
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(streamTimeout.toMillis()));
+        subscribers.add(subscriber);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        return subscriber.emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // After bulk changes such as an import, clients reload once instead of receiving a delta per row
+    public void requestResync() {
+        subscribers.forEach(Subscriber::requestResync);
+    }
+
+    // After commit only, so clients never see a change that was rolled back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            if (event.created()) {
+                createdBooks.add(event.bookId());
+            }
+            changedBooks.add(event.bookId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeDTO change) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(change, maxPending);
+        }
+    }
+
+    public static ChangeDTO loanChange(String action, TransactionDTO loan) {
+        return new ChangeDTO("loan", action, loan.getId(), null, null, loan.getUserId(), loan.getBookId(),
+                loan.getIssueDate(), loan.getDueDate(), loan.getReturnDate(), loan.getFine(), loan.getStatus());
+    }
+
+    public static ChangeDTO userChange(String action, Long userId, String status) {
+        return new ChangeDTO("user", action, userId, null, null, null, null, null, null, null, null, status);
+    }
+
+    void flush() {
+        try {
+            publishBookChanges();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.hasWork(heartbeatInterval) && subscriber.sending.compareAndSet(false, true)) {
+                    senders.execute(() -> send(subscriber));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Swallowed to keep the schedule alive; clients get the rows on the next flush or their next reload
+            log.warn("Change feed flush failed", e);
+        }
+    }
+
+    // However many times a book changed since the last flush, one IN query reads its current values for every client
+    private void publishBookChanges() {
+        if (changedBooks.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(changedBooks);
+        changedBooks.removeAll(ids);
+        for (int from = 0; from < ids.size(); from += BOOK_LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + BOOK_LOOKUP_CHUNK));
+            Map<Long, ChangeDTO> found = new HashMap<>();
+            jdbcTemplate.query("SELECT id, available, quantity FROM books WHERE id IN (:ids)", Map.of("ids", chunk),
+                    row -> {
+                        long id = row.getLong(1);
+                        // Created: clients fetch the full row, the delta only carries the counts
+                        found.put(id, new ChangeDTO("book", createdBooks.remove(id) ? "created" : "changed", id,
+                                row.getInt(2), row.getInt(3), null, null, null, null, null, null, null));
+                    });
+            for (Long id : chunk) {
+                createdBooks.remove(id); // Created and deleted before this flush
+                onChange(found.getOrDefault(id, new ChangeDTO("book", "deleted", id, null, null,
+                        null, null, null, null, null, null, null)));
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            List<ChangeDTO> changes = new ArrayList<>();
+            boolean resync = subscriber.drain(changes);
+            if (resync) {
+                subscriber.emitter.send(SseEmitter.event().name("resync").data("reload"));
+            } else if (!changes.isEmpty()) {
+                subscriber.emitter.send(SseEmitter.event().name("changes").data(changes, MediaType.APPLICATION_JSON));
+            } else {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive")); // Finds clients that went away
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final Map<String, ChangeDTO> pending = new LinkedHashMap<>();
+        private boolean resync;
+        private long lastSentNanos = System.nanoTime();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(ChangeDTO change, int maxPending) {
+            if (resync) {
+                return; // The client reloads everything anyway
+            }
+            String key = change.getType() + ':' + change.getId();
+            ChangeDTO replaced = pending.remove(key); // Re-inserted so the batch keeps the order of the latest changes
+            if (replaced != null && "created".equals(replaced.getAction()) && "changed".equals(change.getAction())) {
+                // Still new to this client; a copy, since every subscriber is offered the same instance
+                change = new ChangeDTO("book", "created", change.getId(), change.getAvailable(), change.getQuantity(),
+                        null, null, null, null, null, null, null);
+            }
+            pending.put(key, change);
+            if (pending.size() > maxPending) {
+                requestResync();
+            }
+        }
+
+        private synchronized void requestResync() {
+            pending.clear();
+            resync = true;
+        }
+
+        private synchronized boolean hasWork(Duration heartbeatInterval) {
+            return resync || !pending.isEmpty() || System.nanoTime() - lastSentNanos >= heartbeatInterval.toNanos();
+        }
+
+        private synchronized boolean drain(List<ChangeDTO> into) {
+            boolean wasResync = resync;
+            into.addAll(pending.values());
+            pending.clear();
+            resync = false;
+            lastSentNanos = System.nanoTime();
+            return wasResync;
+        }
+    }
+}
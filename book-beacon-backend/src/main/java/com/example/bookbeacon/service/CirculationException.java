@@ -0,0 +1,9 @@
+package com.example.bookbeacon.service;
+
+// A loan, return or hold the circulation rules turn down; the message is meant for the desk and answered with 400
+public class CirculationException extends RuntimeException {
+
+    public CirculationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bookbeacon.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal RFC 4180 reader: one record per call, quoted fields may hold commas, quotes and line breaks
+final class CsvReader implements Closeable {
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Fields of the next record, or null at the end of input
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (; ; c = read()) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c != '"') {
+                    field.append((char) c);
+                } else if (peek() == '"') {
+                    field.append((char) read());
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        return fill() ? buffer[position++] : -1;
+    }
+
+    private int peek() throws IOException {
+        return fill() ? buffer[position] : -1;
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        limit = reader.read(buffer);
+        position = 0;
+        return limit > 0;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.bookbeacon.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+// Full-table exports written row by row from a forward-only cursor, so memory stays flat at any table size
+@Service
+public class ExportService {
+
+    public enum Dataset {
+        BOOKS("SELECT id, title, author, category, isbn, quantity, available, published_year, description "
+                + "FROM books WHERE id > ? ORDER BY id",
+                List.of("id", "title", "author", "category", "isbn", "quantity", "available", "publishedYear",
+                        "description")),
+        USERS("SELECT id, name, email, phone, role, membership_id, join_date, status, books_issued "
+                + "FROM users WHERE id > ? ORDER BY id",
+                List.of("id", "name", "email", "phone", "role", "membershipId", "joinDate", "status", "booksIssued")),
+        TRANSACTIONS("SELECT t.id, t.user_id, t.book_id, u.name, b.title, b.isbn, t.issue_date, t.due_date, "
+                + "t.return_date, t.status, t.fine FROM transactions t "
+                + "LEFT JOIN users u ON u.id = t.user_id LEFT JOIN books b ON b.id = t.book_id "
+                + "WHERE t.id > ? ORDER BY t.id",
+                List.of("id", "userId", "bookId", "userName", "bookTitle", "bookIsbn", "issueDate", "dueDate",
+                        "returnDate", "status", "fine"));
+
+        private final String sql;
+        private final List<String> columns;
+
+        Dataset(String sql, List<String> columns) {
+            this.sql = sql;
+            this.columns = columns;
+        }
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bookbeacon.export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Rows come in id order; to resume a cut-off export pass the id of the last complete row as afterId.
+    // A CSV header is only written when starting from the beginning, so resumed parts can simply be appended.
+    public void export(Dataset dataset, Format format, long afterId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = objectMapper.getFactory().createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null); // Rows are separated by the newline written after each one
+        }
+        if (format == Format.CSV && afterId == 0) {
+            writeCsvRow(writer, dataset.columns.toArray());
+        }
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true); // PostgreSQL only streams with a fetch size inside a transaction
+        try {
+            JsonGenerator rowJson = json;
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(dataset.sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, afterId);
+                return statement;
+            }, (ResultSet row) -> {
+                try {
+                    Object[] values = readRow(row, dataset.columns.size());
+                    if (rowJson != null) {
+                        writeJsonRow(rowJson, dataset.columns, values);
+                    } else {
+                        writeCsvRow(writer, values);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Client went away: stop reading the cursor
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private static Object[] readRow(ResultSet row, int columnCount) throws SQLException {
+        Object[] values = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            Object value = row.getObject(i + 1);
+            values[i] = value instanceof Date date ? date.toLocalDate().toString() : value;
+        }
+        return values;
+    }
+
+    private static void writeJsonRow(JsonGenerator json, List<String> columns, Object[] values) throws IOException {
+        json.writeStartObject();
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            json.writeFieldName(columns.get(i));
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof BigDecimal decimal) {
+                json.writeNumber(decimal);
+            } else if (value instanceof Number number) {
+                json.writeNumber(number.longValue());
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeCsvRow(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                writer.write(text);
+            } else {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.bookbeacon.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Pushes "your hold is ready" to the member's open event streams, so nobody has to poll the book for a copy
+@Component
+public class HoldNotifier {
+
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    // Sends leave the thread that committed the return, so a slow client never holds up circulation
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hold-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${bookbeacon.holds.stream-timeout:PT30M}")
+    private Duration streamTimeout;
+
+    // EventSource clients reconnect on their own when the timeout closes the stream
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        subscribers.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        Runnable unsubscribe = () -> subscribers.computeIfPresent(userId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return emitter;
+    }
+
+    // After commit only, so a rolled-back return never announces a copy
+    @TransactionalEventListener
+    public void onHoldReady(HoldReadyEvent event) {
+        List<SseEmitter> emitters = subscribers.get(event.userId());
+        if (emitters != null) {
+            sender.execute(() -> send(emitters, event));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+    }
+
+    private void send(List<SseEmitter> emitters, HoldReadyEvent event) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("hold-ready").data(event));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e); // Client went away; onError unsubscribes it
+            }
+        }
+    }
+
+    int subscriberCount(Long userId) {
+        List<SseEmitter> emitters = subscribers.get(userId);
+        return emitters == null ? 0 : emitters.size();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bookbeacon.service;
+
+import java.time.LocalDateTime;
+
+// Published when a copy is set aside for a hold; delivered to the member after the transaction commits
+public record HoldReadyEvent(Long holdId, Long userId, Long bookId, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,229 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.HoldDTO;
+import com.example.bookbeacon.model.Hold;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.HoldRepository;
+import com.example.bookbeacon.repository.TransactionRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// FIFO hold queue per title. Every queue change first locks the book row, the same row issue and return update,
+// so placing, cancelling, expiring and allocating never interleave for one title.
+@Service
+public class HoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldService.class);
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private LookupCache lookupCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Value("${bookbeacon.holds.pickup-period:P3D}")
+    private Duration pickupPeriod;
+
+    @Value("${bookbeacon.holds.chunk-size:500}")
+    private int chunkSize;
+
+    @Transactional
+    public HoldDTO placeHold(Long userId, Long bookId) {
+        int available = bookRepository.lockAvailable(bookId)
+                .orElseThrow(() -> new CirculationException("Book not found"));
+        if (!userRepository.existsById(userId)) {
+            throw new CirculationException("User not found");
+        }
+        if (available > 0) {
+            throw new CirculationException("Book is available, no hold needed");
+        }
+        if (holdRepository.existsActive(userId, bookId)) {
+            throw new CirculationException("User already has a hold on this book");
+        }
+        if (transactionRepository.existsOpenLoan(userId, bookId)) {
+            throw new CirculationException("User already has this book on loan");
+        }
+
+        Hold hold = new Hold();
+        hold.setUser(userRepository.getReferenceById(userId));
+        hold.setBook(bookRepository.getReferenceById(bookId));
+        hold.setStatus("WAITING");
+        hold.setQueuePosition(holdRepository.countWaiting(bookId) + 1);
+        hold.setPlacedAt(LocalDateTime.now());
+        Long holdId = holdRepository.save(hold).getId();
+        auditLog.record("hold", holdId, "placed", AuditLog.details(
+                "userId", userId, "bookId", bookId, "queuePosition", hold.getQueuePosition()));
+        return holdRepository.findDTOById(holdId).orElseThrow();
+    }
+
+    @Transactional
+    public void cancelHold(Long holdId) {
+        Long bookId = holdRepository.findDTOById(holdId)
+                .orElseThrow(() -> new CirculationException("Hold not found")).getBookId();
+        bookRepository.lockAvailable(bookId);
+        // Re-read under the lock: the position may have moved since the first read
+        HoldDTO hold = holdRepository.findDTOById(holdId).orElseThrow();
+        if ("WAITING".equals(hold.getStatus())) {
+            holdRepository.moveStatus(holdId, "WAITING", "CANCELLED");
+            holdRepository.closeGap(bookId, hold.getQueuePosition());
+        } else if ("READY".equals(hold.getStatus())) {
+            holdRepository.moveStatus(holdId, "READY", "CANCELLED");
+            allocateCopy(bookId); // The copy set aside goes to the next member in line
+            bookChanged(bookId);
+        } else {
+            throw new CirculationException("Hold is no longer active");
+        }
+        auditLog.record("hold", holdId, "cancelled", AuditLog.details(
+                "userId", hold.getUserId(), "bookId", bookId, "status", hold.getStatus()));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<HoldDTO> getHold(Long holdId) {
+        return holdRepository.findDTOById(holdId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<HoldDTO> getUserHolds(Long userId) {
+        return holdRepository.findActiveDTOsByUserId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<HoldDTO> getBookQueue(Long bookId) {
+        return holdRepository.findQueueDTOsByBookId(bookId);
+    }
+
+    // Called inside returnBook: the returned copy goes to the front of the queue, or back on the shelf if nobody waits
+    void allocateCopy(Long bookId) {
+        allocateCopy(bookId, LocalDateTime.now());
+    }
+
+    private void allocateCopy(Long bookId, LocalDateTime now) {
+        bookRepository.lockAvailable(bookId);
+        Optional<HoldRepository.QueueEntry> front = holdRepository.findFrontOfQueue(bookId);
+        if (front.isEmpty()) {
+            // Every copy already on the shelf means the counter drifted; fail rather than lose the return
+            if (bookRepository.incrementAvailable(bookId) == 0) {
+                throw new CirculationException("Book copy count is inconsistent");
+            }
+            statsService.recordShelfChanged(1);
+            return;
+        }
+        setAside(front.get(), bookId, now);
+    }
+
+    // Called inside issueBook: a member collecting a READY hold takes the copy set aside for them.
+    // Returns the claimed hold id, or null when the member has no READY hold on this book.
+    Long claimReadyHold(Long userId, Long bookId) {
+        return holdRepository.findReadyId(userId, bookId)
+                .filter(holdId -> holdRepository.moveStatus(holdId, "READY", "FULFILLED") == 1)
+                .orElse(null);
+    }
+
+    private void setAside(HoldRepository.QueueEntry hold, Long bookId, LocalDateTime now) {
+        LocalDateTime expiresAt = now.plus(pickupPeriod);
+        holdRepository.markReady(hold.getId(), now, expiresAt);
+        auditLog.record("hold", hold.getId(), "ready", AuditLog.details(
+                "userId", hold.getUserId(), "bookId", bookId, "expiresAt", expiresAt));
+        holdRepository.closeGap(bookId, 1);
+        eventPublisher.publishEvent(new HoldReadyEvent(hold.getId(), hold.getUserId(), bookId, expiresAt));
+    }
+
+    @Scheduled(fixedDelayString = "${bookbeacon.holds.sweep-interval:PT5M}",
+               initialDelayString = "${bookbeacon.holds.initial-delay:PT1M}")
+    public void sweep() {
+        int expired = expireHolds(LocalDateTime.now());
+        int allocated = allocateShelfCopies();
+        if (expired > 0 || allocated > 0) {
+            log.info("Hold sweep: {} holds expired, {} shelf copies set aside", expired, allocated);
+        }
+    }
+
+    // Uncollected READY holds expire and their copy moves on; one short transaction per hold
+    int expireHolds(LocalDateTime now) {
+        TransactionTemplate perHold = new TransactionTemplate(transactionManager);
+        int total = 0;
+        List<Long> ids;
+        while (!(ids = holdRepository.findExpiredIds(now, PageRequest.of(0, chunkSize))).isEmpty()) {
+            for (Long holdId : ids) {
+                Boolean expired = perHold.execute(status -> {
+                    Long bookId = holdRepository.findDTOById(holdId).orElseThrow().getBookId();
+                    bookRepository.lockAvailable(bookId);
+                    if (holdRepository.moveStatus(holdId, "READY", "EXPIRED") == 0) {
+                        return false; // Collected or cancelled meanwhile
+                    }
+                    auditLog.record("hold", holdId, "expired", AuditLog.details("bookId", bookId));
+                    allocateCopy(bookId, now); // Pick-up time runs from the sweep's clock
+                    bookChanged(bookId);
+                    return true;
+                });
+                total += Boolean.TRUE.equals(expired) ? 1 : 0;
+            }
+        }
+        return total;
+    }
+
+    // Copies that reached the shelf while members were waiting (stock added, import) go to the queue
+    int allocateShelfCopies() {
+        TransactionTemplate perBook = new TransactionTemplate(transactionManager);
+        int total = 0;
+        for (Long bookId : holdRepository.findBookIdsWithWaitingHoldsAndShelfCopies()) {
+            Integer allocated = perBook.execute(status -> {
+                bookRepository.lockAvailable(bookId);
+                int count = 0;
+                Optional<HoldRepository.QueueEntry> front;
+                while ((front = holdRepository.findFrontOfQueue(bookId)).isPresent()
+                        && bookRepository.decrementAvailable(bookId) == 1) {
+                    setAside(front.get(), bookId, LocalDateTime.now());
+                    count++;
+                }
+                statsService.recordShelfChanged(-count);
+                bookChanged(bookId);
+                return count;
+            });
+            total += allocated == null ? 0 : allocated;
+        }
+        return total;
+    }
+
+    // Cached book lookups carry available; the cache and the change feed both act on commit
+    private void bookChanged(Long bookId) {
+        bookRepository.findById(bookId).ifPresent(book -> lookupCache.evictBook(book.getId(), book.getIsbn()));
+        eventPublisher.publishEvent(new BookChangedEvent(bookId));
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.CounterDiscrepancyDTO;
+import com.example.bookbeacon.dto.ReconciliationReportDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Recomputes Book.available (copies minus open loans minus copies set aside for READY holds) and User.booksIssued
+// (open loans) from the rows, and reports or repairs counters that drifted. The id range of each table is split
+// fork-join style down to chunks of chunkSize ids; each chunk is one statement plus, when repairing, conditional
+// updates in a short transaction of its own. At most `parallelism` chunks run at once, so the job can run online.
+@Service
+public class InventoryReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryReconciler.class);
+
+    // One snapshot per chunk: the counter and the rows it should match are read by the same statement
+    private static final String BOOKS_SQL = "SELECT b.id, b.isbn, b.quantity, b.available, "
+            + "(SELECT COUNT(*) FROM transactions t WHERE t.book_id = b.id AND t.status IN ('ISSUED', 'OVERDUE') "
+            + "AND t.archived = FALSE) AS loans, "
+            + "(SELECT COUNT(*) FROM holds h WHERE h.book_id = b.id AND h.status = 'READY') AS set_aside "
+            + "FROM books b WHERE b.id BETWEEN ? AND ?";
+    private static final String USERS_SQL = "SELECT u.id, u.membership_id, u.status, u.books_issued, "
+            + "(SELECT COUNT(*) FROM transactions t WHERE t.user_id = u.id AND t.status IN ('ISSUED', 'OVERDUE') "
+            + "AND t.archived = FALSE) AS loans "
+            + "FROM users u WHERE u.id BETWEEN ? AND ?";
+    // Only if the counter still holds what was read; a loan that moved it since is left for the next run.
+    // The version bump makes a stale updateBook / updateUser fail like any concurrent write would.
+    private static final String REPAIR_BOOK_SQL = "UPDATE books SET available = ?, version = version + 1 "
+            + "WHERE id = ? AND available IS NOT DISTINCT FROM ?";
+    private static final String REPAIR_USER_SQL = "UPDATE users SET books_issued = ?, version = version + 1 "
+            + "WHERE id = ? AND books_issued IS NOT DISTINCT FROM ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LookupCache lookupCache;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Value("${bookbeacon.reconcile.parallelism:2}")
+    private int parallelism;
+
+    @Value("${bookbeacon.reconcile.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${bookbeacon.reconcile.max-reported:1000}")
+    private int maxReported;
+
+    @Value("${bookbeacon.reconcile.repair:false}")
+    private boolean repairOnSchedule;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(fixedDelayString = "${bookbeacon.reconcile.interval:PT24H}",
+               initialDelayString = "${bookbeacon.reconcile.initial-delay:PT1H}")
+    public void scheduledRun() {
+        ReconciliationReportDTO report = reconcile(repairOnSchedule);
+        if (report.getBookDiscrepancies() + report.getUserDiscrepancies() > 0) {
+            log.warn("Inventory reconciliation: {} book and {} member counters off, {} repaired",
+                    report.getBookDiscrepancies(), report.getUserDiscrepancies(), report.getRepaired());
+        }
+        if (report.getOverIssuedBooks() > 0) {
+            log.warn("Inventory reconciliation: {} books have more copies out than their quantity",
+                    report.getOverIssuedBooks());
+        }
+    }
+
+    // Throws IllegalStateException if a run is already in progress
+    public ReconciliationReportDTO reconcile(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Reconciliation already running");
+        }
+        try {
+            Instant startedAt = Instant.now();
+            Run run = new Run(repair);
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                long[] books = idRange("books");
+                if (books != null) {
+                    pool.invoke(new Chunk(run, books[0], books[1], this::reconcileBooks));
+                }
+                long[] users = idRange("users");
+                if (users != null) {
+                    pool.invoke(new Chunk(run, users[0], users[1], this::reconcileUsers));
+                }
+            } finally {
+                pool.shutdown();
+            }
+
+            if (run.repaired.sum() > 0) {
+                statsService.reconcile(); // Available copies moved
+                tableVersions.bump(TableVersions.Table.BOOKS);
+                tableVersions.bump(TableVersions.Table.USERS);
+                auditLog.record("reconciliation", null, "repaired", AuditLog.details(
+                        "books", run.bookDiscrepancies.sum(), "users", run.userDiscrepancies.sum(),
+                        "repaired", run.repaired.sum()));
+            }
+            List<CounterDiscrepancyDTO> reported = new ArrayList<>(run.reported);
+            return new ReconciliationReportDTO(repair, run.booksChecked.sum(), run.usersChecked.sum(),
+                    run.bookDiscrepancies.sum(), run.userDiscrepancies.sum(), run.overIssuedBooks.sum(),
+                    run.repaired.sum(), reported, startedAt, Duration.between(startedAt, Instant.now()).toMillis());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long[] idRange(String table) {
+        return jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM " + table, result -> {
+            result.next();
+            long low = result.getLong(1);
+            return result.wasNull() ? null : new long[]{low, result.getLong(2)};
+        });
+    }
+
+    private void reconcileBooks(Run run, long from, long to) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.query(BOOKS_SQL, result -> {
+                run.booksChecked.increment();
+                long id = result.getLong("id");
+                Integer recorded = result.getObject("available", Integer.class);
+                int quantity = result.getInt("quantity");
+                int out = result.getInt("loans") + result.getInt("set_aside");
+                if (out > quantity) {
+                    // Not a counter a repair can fix: a loan or hold went through without a copy behind it, or
+                    // the quantity was lowered under copies still out. Reported apart so it is not read as drift.
+                    run.overIssuedBooks.increment();
+                    run.report(new CounterDiscrepancyDTO("book", id, "quantity", quantity, out, false));
+                }
+                int expected = Math.max(0, quantity - out); // Nothing left to lend either way
+                if (recorded != null && recorded == expected) {
+                    return;
+                }
+                run.bookDiscrepancies.increment();
+                boolean repaired = run.repair && jdbcTemplate.update(REPAIR_BOOK_SQL, expected, id, recorded) == 1;
+                if (repaired) {
+                    run.repaired.increment();
+                    lookupCache.evictBook(id, result.getString("isbn"));
+                    eventPublisher.publishEvent(new BookChangedEvent(id));
+                    auditLog.record("book", id, "reconciled", change("available", recorded, expected));
+                }
+                run.report(new CounterDiscrepancyDTO("book", id, "available", recorded, expected, repaired));
+            }, from, to);
+        });
+    }
+
+    private void reconcileUsers(Run run, long from, long to) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.query(USERS_SQL, result -> {
+                run.usersChecked.increment();
+                long id = result.getLong("id");
+                Integer recorded = result.getObject("books_issued", Integer.class);
+                int expected = result.getInt("loans");
+                if (recorded != null && recorded == expected) {
+                    return;
+                }
+                run.userDiscrepancies.increment();
+                boolean repaired = run.repair && jdbcTemplate.update(REPAIR_USER_SQL, expected, id, recorded) == 1;
+                if (repaired) {
+                    run.repaired.increment();
+                    lookupCache.evictUser(id, result.getString("membership_id"));
+                    eventPublisher.publishEvent(ChangeFeed.userChange("changed", id, result.getString("status")));
+                    auditLog.record("user", id, "reconciled", change("booksIssued", recorded, expected));
+                }
+                run.report(new CounterDiscrepancyDTO("user", id, "booksIssued", recorded, expected, repaired));
+            }, from, to);
+        });
+    }
+
+    private static Map<String, Object> change(String field, Integer from, int to) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        AuditLog.putChange(changes, field, from, to);
+        return changes;
+    }
+
+    private interface ChunkWork {
+        void run(Run run, long from, long to);
+    }
+
+    // Ids [from, to], halved until a piece is at most chunkSize ids wide
+    private final class Chunk extends RecursiveAction {
+        private final Run run;
+        private final long from;
+        private final long to;
+        private final ChunkWork work;
+
+        private Chunk(Run run, long from, long to, ChunkWork work) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < chunkSize) {
+                work.run(run, from, to);
+                return;
+            }
+            long middle = from + (to - from) / 2;
+            invokeAll(new Chunk(run, from, middle, work), new Chunk(run, middle + 1, to, work));
+        }
+    }
+
+    // Totals for one run, shared by its chunks
+    private final class Run {
+        private final boolean repair;
+        private final LongAdder booksChecked = new LongAdder();
+        private final LongAdder usersChecked = new LongAdder();
+        private final LongAdder bookDiscrepancies = new LongAdder();
+        private final LongAdder userDiscrepancies = new LongAdder();
+        private final LongAdder overIssuedBooks = new LongAdder();
+        private final LongAdder repaired = new LongAdder();
+        private final Queue<CounterDiscrepancyDTO> reported = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger reportedCount = new AtomicInteger();
+
+        private Run(boolean repair) {
+            this.repair = repair;
+        }
+
+        private void report(CounterDiscrepancyDTO discrepancy) {
+            if (reportedCount.incrementAndGet() <= maxReported) {
+                reported.add(discrepancy);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+// Retires returned loans older than the horizon. On PostgreSQL this moves them out of transactions_hot into a
+// yearly partition of transactions_cold, so the tables open-loan queries scan only grow with current circulation.
+// The partitions are created by the V6 migration, not here: archiving needs no DDL rights and takes no lock on the
+// parent table beyond what the row updates take.
+@Service
+public class LoanArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanArchiver.class);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Value("${bookbeacon.archive.horizon:P1Y}")
+    private Period horizon;
+
+    @Value("${bookbeacon.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "${bookbeacon.archive.interval:PT6H}",
+               initialDelayString = "${bookbeacon.archive.initial-delay:PT10M}")
+    public void archiveOldLoans() {
+        archive(LocalDate.now());
+    }
+
+    // Each chunk commits on its own, like the overdue sweep; returns the number of loans archived
+    public int archive(LocalDate today) {
+        LocalDate cutoff = today.minus(horizon);
+        TransactionTemplate chunk = new TransactionTemplate(transactionManager);
+        int total = 0;
+        while (true) {
+            Integer archived = chunk.execute(status -> {
+                List<Long> ids = transactionRepository.findArchivableIds(cutoff, PageRequest.of(0, chunkSize));
+                return ids.isEmpty() ? 0 : transactionRepository.markArchived(ids);
+            });
+            if (archived == null || archived == 0) {
+                break;
+            }
+            total += archived;
+        }
+        if (total > 0) {
+            log.info("Loan archive: {} returned loans before {} archived", total, cutoff);
+            auditLog.record("archive", null, "archived", AuditLog.details("loans", total, "returnedBefore", cutoff));
+            changeFeed.requestResync(); // Archived loans drop out of open loan lists
+            tableVersions.bump(TableVersions.Table.USERS); // Loan writes count as member writes, as on the feed
+        }
+        return total;
+    }
+}
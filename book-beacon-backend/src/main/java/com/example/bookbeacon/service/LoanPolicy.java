@@ -0,0 +1,129 @@
+package com.example.bookbeacon.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Loan rules compiled into flat arrays: one cell per (role, category) pair named by any rule, plus a column and a
+// row for everything else. Every cell already holds the most specific matching rule, so a lookup is two map reads
+// and an array index, with no allocation. Instances never change; LoanPolicyService swaps in a new one on reload.
+public final class LoanPolicy {
+
+    public static final String ANY = "*";
+
+    private final List<Rule> rules;
+    private final Map<String, Integer> roles = new HashMap<>();
+    private final Map<String, Integer> categories = new HashMap<>();
+    private final int width;
+    private final int[] loanDays;
+    private final int[] maxLoans;
+    private final long[] fineCentsPerDay;
+    private final long[] maxFineCents;
+
+    private LoanPolicy(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+        for (Rule rule : rules) {
+            if (!ANY.equals(rule.role())) {
+                roles.putIfAbsent(rule.role(), roles.size());
+            }
+            if (!ANY.equals(rule.category())) {
+                categories.putIfAbsent(rule.category(), categories.size());
+            }
+        }
+        width = categories.size() + 1; // Last column: any other category
+        int cells = (roles.size() + 1) * width; // Last row: any other role
+        loanDays = new int[cells];
+        maxLoans = new int[cells];
+        fineCentsPerDay = new long[cells];
+        maxFineCents = new long[cells];
+
+        List<String> roleNames = new ArrayList<>(roles.keySet());
+        roleNames.add(null);
+        List<String> categoryNames = new ArrayList<>(categories.keySet());
+        categoryNames.add(null);
+        for (String role : roleNames) {
+            for (String category : categoryNames) {
+                Rule rule = mostSpecific(role, category);
+                int cell = cell(role, category);
+                loanDays[cell] = rule.loanDays();
+                maxLoans[cell] = rule.maxLoans();
+                fineCentsPerDay[cell] = rule.fineCentsPerDay();
+                maxFineCents[cell] = rule.maxFineCents();
+            }
+        }
+    }
+
+    // Rules in any order; there must be a "*,*" rule so every loan is covered
+    public static LoanPolicy compile(List<Rule> rules) {
+        Map<String, Rule> seen = new HashMap<>();
+        for (Rule rule : rules) {
+            if (rule.loanDays() < 1 || rule.maxLoans() < 0 || rule.fineCentsPerDay() < 0 || rule.maxFineCents() < 0) {
+                throw new IllegalArgumentException("Invalid loan rule for " + rule.role() + "/" + rule.category());
+            }
+            if (seen.put(rule.role() + "\u0000" + rule.category(), rule) != null) {
+                throw new IllegalArgumentException("Duplicate loan rule for " + rule.role() + "/" + rule.category());
+            }
+        }
+        if (!seen.containsKey(ANY + "\u0000" + ANY)) {
+            throw new IllegalArgumentException("Loan rules need a default rule for role * and category *");
+        }
+        return new LoanPolicy(rules);
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    // Index of the terms for a member's role and a book's category; unknown or null values fall to the * rules
+    public int cell(String role, String category) {
+        Integer row = role == null ? null : roles.get(role);
+        Integer column = category == null ? null : categories.get(category);
+        return (row == null ? roles.size() : row) * width + (column == null ? width - 1 : column);
+    }
+
+    public int loanDays(int cell) {
+        return loanDays[cell];
+    }
+
+    // Loans the member may already hold and still borrow a book under this cell
+    public int maxLoans(int cell) {
+        return maxLoans[cell];
+    }
+
+    // Fine accrued by the given day, in cents
+    public long fineCents(int cell, LocalDate dueDate, LocalDate on) {
+        long daysOverdue = on.toEpochDay() - dueDate.toEpochDay();
+        if (daysOverdue <= 0) {
+            return 0;
+        }
+        long fine = daysOverdue * fineCentsPerDay[cell];
+        long cap = maxFineCents[cell];
+        return cap > 0 && fine > cap ? cap : fine;
+    }
+
+    // (role, category) beats (role, *) beats (*, category) beats (*, *)
+    private Rule mostSpecific(String role, String category) {
+        Rule best = null;
+        int bestScore = -1;
+        for (Rule rule : rules) {
+            boolean anyRole = ANY.equals(rule.role());
+            boolean anyCategory = ANY.equals(rule.category());
+            if ((!anyRole && !rule.role().equals(role)) || (!anyCategory && !rule.category().equals(category))) {
+                continue;
+            }
+            int score = (anyRole ? 0 : 2) + (anyCategory ? 0 : 1);
+            if (score > bestScore) {
+                best = rule;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    // maxFineCents of 0 means no cap
+    public record Rule(String role, String category, int loanDays, int maxLoans, long fineCentsPerDay,
+                       long maxFineCents) {
+    }
+}
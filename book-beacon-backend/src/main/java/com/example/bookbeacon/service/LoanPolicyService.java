@@ -0,0 +1,254 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Owns the compiled loan policy: loads the rules file at startup, swaps in a new table when the file changes (or on
+// reload()), and reprices overdue loans in parallel whenever the rules or the date move.
+@Service
+public class LoanPolicyService {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanPolicyService.class);
+    private static final String UPDATE_FINE_SQL =
+            "UPDATE transactions SET fine = ? WHERE id = ? AND status = 'OVERDUE' AND archived = FALSE";
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Value("${bookbeacon.loan-policy.rules:classpath:loan-policy.csv}")
+    private Resource rulesFile;
+
+    // Each slice holds a connection while it runs, so keep this well under the pool size
+    @Value("${bookbeacon.loan-policy.recalculation-threads:4}")
+    private int recalculationThreads;
+
+    @Value("${bookbeacon.loan-policy.chunk-size:1000}")
+    private int chunkSize;
+
+    private volatile LoanPolicy policy;
+    private long loadedVersion;
+    // Shared by every repricing run; runs are serialised, so one run's slices never queue behind another's
+    private ExecutorService recalculation;
+
+    // A broken rules file stops startup; after that it only fails the reload and the previous table stays in use
+    @PostConstruct
+    void load() {
+        AtomicInteger thread = new AtomicInteger();
+        recalculation = Executors.newFixedThreadPool(Math.max(1, recalculationThreads), runnable -> {
+            Thread worker = new Thread(runnable, "fine-recalculation-" + thread.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+        loadedVersion = lastModified();
+        policy = read();
+        log.info("Loan policy: {} rules from {}", policy.getRules().size(), rulesFile.getDescription());
+    }
+
+    @PreDestroy
+    void stop() {
+        recalculation.shutdownNow();
+    }
+
+    public LoanPolicy current() {
+        return policy;
+    }
+
+    @Scheduled(fixedDelayString = "${bookbeacon.loan-policy.reload-interval:PT30S}",
+               initialDelayString = "${bookbeacon.loan-policy.reload-interval:PT30S}")
+    public void reloadIfChanged() {
+        if (lastModified() == loadedVersion) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Loan policy not reloaded, keeping the previous rules: {}", e.getMessage());
+        }
+    }
+
+    // Compiles the rules file, switches to it, then reprices open fines under the new rates
+    public synchronized LoanPolicy reload() {
+        long version = lastModified();
+        LoanPolicy compiled = read();
+        policy = compiled;
+        loadedVersion = version;
+        log.info("Loan policy reloaded: {} rules from {}", compiled.getRules().size(), rulesFile.getDescription());
+        auditLog.record("loan-policy", null, "reloaded",
+                AuditLog.details("rules", compiled.getRules().size(), "sha256", fingerprint(compiled.getRules())));
+        if (recalculateFines(LocalDate.now()) > 0) {
+            statsService.reconcileLoans();
+        }
+        return compiled;
+    }
+
+    // Bulk mode: the overdue id range is cut into one slice per thread, and each slice is walked in chunks that
+    // read the loans, price them against one policy snapshot and batch-write only the fines that changed.
+    // Returns the number of loans repriced. Holds the reload() lock, so a sweep never writes fines priced under
+    // rules that a reload has already replaced and repriced.
+    public synchronized int recalculateFines(LocalDate today) {
+        TransactionRepository.IdRange range = transactionRepository.findOverdueIdRange();
+        if (range == null || range.getLow() == null) {
+            return 0;
+        }
+        LoanPolicy snapshot = policy;
+        long low = range.getLow() - 1;
+        long high = range.getHigh();
+        int slices = (int) Math.max(1, Math.min(recalculationThreads, high - low));
+        long sliceSize = (high - low + slices - 1) / slices;
+
+        List<Future<Integer>> results = new ArrayList<>(slices);
+        try {
+            for (long from = low; from < high; from += sliceSize) {
+                long after = from;
+                long to = Math.min(high, from + sliceSize);
+                results.add(recalculation.submit(() -> recalculateSlice(snapshot, today, after, to)));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            if (total > 0) {
+                changeFeed.requestResync(); // Every overdue loan can move at once: one reload, not a delta per fine
+                tableVersions.bump(TableVersions.Table.USERS);
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Fine recalculation interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause
+                    : new IllegalStateException("Fine recalculation failed", e.getCause());
+        } finally {
+            results.forEach(result -> result.cancel(true)); // No-op for finished slices
+        }
+    }
+
+    // Loans with ids in (after, to]; each chunk commits on its own
+    private int recalculateSlice(LoanPolicy snapshot, LocalDate today, long after, long to) {
+        TransactionTemplate chunk = new TransactionTemplate(transactionManager);
+        int total = 0;
+        long position = after;
+        while (true) {
+            long from = position;
+            long[] result = chunk.execute(status -> {
+                List<TransactionRepository.OverdueLoan> loans =
+                        transactionRepository.findOverdueLoans(from, to, PageRequest.of(0, chunkSize));
+                List<Object[]> changed = new ArrayList<>();
+                for (TransactionRepository.OverdueLoan loan : loans) {
+                    long cents = snapshot.fineCents(snapshot.cell(loan.getRole(), loan.getCategory()),
+                            loan.getDueDate(), today);
+                    if (loan.getFine() == null || StatsService.toCents(loan.getFine()) != cents) {
+                        changed.add(new Object[]{BigDecimal.valueOf(cents, 2), loan.getId()});
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_FINE_SQL, changed);
+                }
+                return new long[]{loans.isEmpty() ? -1 : loans.get(loans.size() - 1).getId(), changed.size()};
+            });
+            if (result == null || result[0] < 0) {
+                return total;
+            }
+            total += (int) result[1];
+            position = result[0];
+        }
+    }
+
+    // Columns: role, category, loanDays, maxLoans, finePerDay, maxFine (0 = no cap). "*" matches any role or
+    // category; lines starting with # and the header are skipped.
+    private LoanPolicy read() {
+        List<LoanPolicy.Rule> rules = new ArrayList<>();
+        try (CsvReader csv = new CsvReader(new InputStreamReader(rulesFile.getInputStream(), StandardCharsets.UTF_8))) {
+            int line = 0;
+            for (List<String> fields = csv.next(); fields != null; fields = csv.next()) {
+                line++;
+                String first = fields.get(0).trim();
+                if (first.isEmpty() && fields.size() == 1 || first.startsWith("#") || first.equals("role")) {
+                    continue;
+                }
+                if (fields.size() != 6) {
+                    throw new IllegalArgumentException("Loan rule " + line + ": expected 6 columns");
+                }
+                try {
+                    rules.add(new LoanPolicy.Rule(first, fields.get(1).trim(),
+                            Integer.parseInt(fields.get(2).trim()), Integer.parseInt(fields.get(3).trim()),
+                            cents(fields.get(4)), cents(fields.get(5))));
+                } catch (ArithmeticException | NumberFormatException e) {
+                    throw new IllegalArgumentException("Loan rule " + line + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read loan rules from " + rulesFile.getDescription(), e);
+        }
+        return LoanPolicy.compile(rules);
+    }
+
+    // Identifies the table in the audit log without copying every rule into it
+    private static String fingerprint(List<LoanPolicy.Rule> rules) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rules.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JVM provides SHA-256
+        }
+    }
+
+    private static long cents(String amount) {
+        return new BigDecimal(amount.trim()).movePointRight(2).longValueExact();
+    }
+
+    private long lastModified() {
+        try {
+            return rulesFile.lastModified();
+        } catch (IOException e) {
+            return 0; // Not a file (e.g. inside the jar): only reload() picks up changes
+        }
+    }
+}
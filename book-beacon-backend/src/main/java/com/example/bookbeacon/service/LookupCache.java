@@ -0,0 +1,62 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Names of the barcode-scan lookup caches plus the evictions every mutation of a book or user must run
+@Component
+public class LookupCache {
+
+    public static final String BOOKS_BY_ID = "booksById";
+    public static final String BOOKS_BY_ISBN = "booksByIsbn";
+    public static final String USERS_BY_ID = "usersById";
+    public static final String USERS_BY_MEMBERSHIP_ID = "usersByMembershipId";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public void evictBook(Long id, String isbn) {
+        evict(BOOKS_BY_ID, id);
+        evict(BOOKS_BY_ISBN, isbn);
+    }
+
+    public void evictUser(Long id, String membershipId) {
+        evict(USERS_BY_ID, id);
+        evict(USERS_BY_MEMBERSHIP_ID, membershipId);
+    }
+
+    public List<CacheStatsDTO> getStats() {
+        return cacheManager.getCacheNames().stream()
+                .map(name -> {
+                    com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(name);
+                    CacheStats stats = nativeCache.stats();
+                    return new CacheStatsDTO(name, nativeCache.estimatedSize(), stats.hitCount(),
+                            stats.missCount(), stats.hitRate(), stats.evictionCount());
+                })
+                .collect(Collectors.toList());
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        return ((CaffeineCache) cache).getNativeCache();
+    }
+}
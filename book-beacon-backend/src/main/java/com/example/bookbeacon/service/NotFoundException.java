@@ -0,0 +1,9 @@
+package com.example.bookbeacon.service;
+
+// The book or member being changed does not exist; answered with 404
+public class NotFoundException extends RuntimeException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Moves loans past their due date to OVERDUE and keeps their accrued fine current, so reports just read rows.
+// Fines are priced by the loan policy, one rate per member role and book category.
+@Service
+public class OverdueSweepService {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueSweepService.class);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private LoanPolicyService loanPolicyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${bookbeacon.overdue.chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "${bookbeacon.overdue.sweep-interval:PT15M}",
+               initialDelayString = "${bookbeacon.overdue.initial-delay:PT1M}")
+    public void sweep() {
+        LocalDate today = LocalDate.now();
+        int marked = markNewlyOverdue(today);
+        int repriced = loanPolicyService.recalculateFines(today);
+        if (marked > 0 || repriced > 0) {
+            statsService.reconcileLoans();
+            log.info("Overdue sweep: {} loans marked overdue, {} fines updated", marked, repriced);
+            auditLog.record("sweep", null, "overdue",
+                    AuditLog.details("markedOverdue", marked, "finesUpdated", repriced));
+        }
+    }
+
+    // Each chunk commits on its own, so the sweep never holds locks on more than chunkSize rows.
+    // Every loan it moves goes out on the change feed, which also bumps the member table version.
+    int markNewlyOverdue(LocalDate today) {
+        TransactionTemplate chunk = new TransactionTemplate(transactionManager);
+        int total = 0;
+        while (true) {
+            Integer marked = chunk.execute(status -> {
+                List<Long> ids = transactionRepository.findNewlyOverdueIds(today, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                int count = transactionRepository.markOverdue(ids);
+                transactionRepository.findDTOsByIds(ids).stream()
+                        .filter(loan -> "OVERDUE".equals(loan.getStatus())) // Not returned meanwhile
+                        .forEach(loan -> eventPublisher.publishEvent(ChangeFeed.loanChange("overdue", loan)));
+                return count;
+            });
+            if (marked == null || marked == 0) {
+                return total;
+            }
+            total += marked;
+        }
+    }
+}
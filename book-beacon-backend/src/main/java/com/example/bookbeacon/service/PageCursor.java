@@ -0,0 +1,63 @@
+package com.example.bookbeacon.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursor: the sort value and id of the last row on the previous page. A null sort value (a row
+// without a title or name) is encoded as the id alone, so it stays distinct from an empty one.
+final class PageCursor {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    private static final char SEPARATOR = '\n';
+
+    private final String sortValue;
+    private final long lastId;
+
+    private PageCursor(String sortValue, long lastId) {
+        this.sortValue = sortValue;
+        this.lastId = lastId;
+    }
+
+    static PageCursor first() {
+        return new PageCursor("", 0L);
+    }
+
+    static PageCursor after(String sortValue, Long lastId) {
+        return new PageCursor(sortValue, lastId);
+    }
+
+    static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return first();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(split < 0 ? null : raw.substring(0, split), Long.parseLong(raw.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+    }
+
+    static int clampSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    String encode() {
+        String raw = sortValue == null ? Long.toString(lastId) : sortValue + SEPARATOR + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    String getSortValue() {
+        return sortValue;
+    }
+
+    long getLastId() {
+        return lastId;
+    }
+}
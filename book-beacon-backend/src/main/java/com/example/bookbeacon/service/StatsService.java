@@ -0,0 +1,169 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.StatsDTO;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.TransactionRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Running dashboard totals: mutations apply deltas, a periodic job resets them from SQL aggregates
+@Service
+public class StatsService {
+
+    private final AtomicLong totalTitles = new AtomicLong();
+    private final AtomicLong totalCopies = new AtomicLong();
+    private final AtomicLong availableCopies = new AtomicLong();
+    private final AtomicLong totalMembers = new AtomicLong();
+    private final AtomicLong activeMembers = new AtomicLong();
+    private final AtomicLong openLoans = new AtomicLong();
+    private final AtomicLong overdueLoans = new AtomicLong();
+    private final AtomicLong outstandingFineCents = new AtomicLong();
+    private volatile Instant reconciledAt;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    public StatsDTO getStats() {
+        return new StatsDTO(totalTitles.get(), totalCopies.get(), availableCopies.get(),
+                totalMembers.get(), activeMembers.get(), openLoans.get(), overdueLoans.get(),
+                BigDecimal.valueOf(outstandingFineCents.get(), 2), reconciledAt);
+    }
+
+    public void recordBookCreated(int copies) {
+        afterCommit(() -> {
+            totalTitles.incrementAndGet();
+            totalCopies.addAndGet(copies);
+            availableCopies.addAndGet(copies);
+        });
+    }
+
+    public void recordBookQuantityChanged(int difference) {
+        afterCommit(() -> {
+            totalCopies.addAndGet(difference);
+            availableCopies.addAndGet(difference);
+        });
+    }
+
+    public void recordBookDeleted(int copies, int available) {
+        afterCommit(() -> {
+            totalTitles.decrementAndGet();
+            totalCopies.addAndGet(-copies);
+            availableCopies.addAndGet(-available);
+        });
+    }
+
+    // A bulk import: titles added, plus copies added across new and updated titles
+    public void recordBooksImported(long titles, long copies) {
+        afterCommit(() -> {
+            totalTitles.addAndGet(titles);
+            totalCopies.addAndGet(copies);
+            availableCopies.addAndGet(copies);
+        });
+    }
+
+    public void recordUserCreated(String status) {
+        afterCommit(() -> {
+            totalMembers.incrementAndGet();
+            if (isActive(status)) {
+                activeMembers.incrementAndGet();
+            }
+        });
+    }
+
+    public void recordUserStatusChanged(String previousStatus, String status) {
+        if (isActive(previousStatus) != isActive(status)) {
+            afterCommit(() -> activeMembers.addAndGet(isActive(status) ? 1 : -1));
+        }
+    }
+
+    public void recordUserDeleted(String status) {
+        afterCommit(() -> {
+            totalMembers.decrementAndGet();
+            if (isActive(status)) {
+                activeMembers.decrementAndGet();
+            }
+        });
+    }
+
+    // Copies taken off or put back on the shelf by circulation; a copy set aside for a hold is not on the shelf
+    public void recordShelfChanged(int difference) {
+        afterCommit(() -> availableCopies.addAndGet(difference));
+    }
+
+    public void recordLoanIssued() {
+        afterCommit(openLoans::incrementAndGet);
+    }
+
+    public void recordLoanReturned(boolean wasOverdue, BigDecimal accruedFine) {
+        afterCommit(() -> {
+            openLoans.decrementAndGet();
+            if (wasOverdue) {
+                overdueLoans.decrementAndGet();
+                outstandingFineCents.addAndGet(-toCents(accruedFine));
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${bookbeacon.stats.reconcile-interval:PT5M}",
+               initialDelayString = "${bookbeacon.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        BookRepository.CatalogTotals catalog = bookRepository.aggregateTotals();
+        totalTitles.set(catalog.getTitles());
+        totalCopies.set(catalog.getCopies());
+        availableCopies.set(catalog.getAvailable());
+
+        UserRepository.MemberTotals members = userRepository.aggregateTotals();
+        totalMembers.set(members.getMembers());
+        activeMembers.set(members.getActiveMembers());
+
+        reconcileLoans();
+        reconciledAt = Instant.now();
+    }
+
+    // Loan totals alone; the overdue sweep calls this after it moves loans or fines
+    public void reconcileLoans() {
+        TransactionRepository.LoanTotals loans = transactionRepository.aggregateOpenLoans();
+        openLoans.set(loans.getOpenLoans());
+        overdueLoans.set(loans.getOverdueLoans());
+        outstandingFineCents.set(toCents(loans.getOutstandingFines()));
+    }
+
+    // Deltas from a transaction that rolls back must not count
+    private void afterCommit(Runnable delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delta.run();
+                }
+            });
+        } else {
+            delta.run();
+        }
+    }
+
+    private static boolean isActive(String status) {
+        return "Active".equals(status);
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValue();
+    }
+}
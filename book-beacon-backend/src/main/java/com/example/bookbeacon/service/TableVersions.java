@@ -0,0 +1,159 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.ChangeDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Modification counters for the books and users tables, bumped after every committed write through the services
+// and by the bulk writers (import, overdue sweep, fine repricing, archiver, reconciler) once per run that changed rows.
+// They back the ETag / Last-Modified of catalog and member reads, so a revalidation costs a comparison, not a query.
+// The counters are per instance; the table_versions rows carry writes between instances. Every sync interval an
+// instance bumps the row of each table it wrote and reads both rows, and a row moved by another instance bumps the
+// local counter. A write on one instance therefore reaches the others' tags within about two intervals.
+@Component
+public class TableVersions {
+
+    public enum Table { BOOKS, USERS }
+
+    private static final Logger log = LoggerFactory.getLogger(TableVersions.class);
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Counter books = new Counter("books");
+    private final Counter users = new Counter("users");
+    private final ScheduledExecutorService syncs = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "table-version-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${bookbeacon.http.version-sync-interval:PT1S}")
+    private Duration syncInterval;
+
+    // Weak, so Tomcat still gzips the body: the compressed and plain bodies carry the same tag
+    public String etag(Table table) {
+        return "W/\"" + table.name().toLowerCase() + "-" + epoch + "-" + counter(table).version.get() + "\"";
+    }
+
+    public long lastModified(Table table) {
+        return counter(table).modifiedAt;
+    }
+
+    public void bump(Table table) {
+        counter(table).bumpLocal();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        books.bumpLocal();
+    }
+
+    // Loans move users.books_issued, so they change member reads as well
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeDTO change) {
+        if ("user".equals(change.getType()) || "loan".equals(change.getType())) {
+            users.bumpLocal();
+        }
+    }
+
+    // Not a @Scheduled job: bookbeacon.scheduling.enabled may be off on instances that still serve reads
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSync() {
+        syncs.scheduleWithFixedDelay(this::syncQuietly, 0, syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        syncs.shutdownNow();
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (DataAccessException e) {
+            log.warn("Table version sync failed; other instances' writes are not reflected in ETags: {}",
+                    e.getMessage());
+        }
+    }
+
+    // Package-private so tests can run it directly
+    synchronized void sync() {
+        for (Counter counter : List.of(books, users)) {
+            boolean wrote = counter.dirty.getAndSet(false);
+            if (wrote) {
+                try {
+                    publish(counter);
+                } catch (DataAccessException e) {
+                    counter.dirty.set(true); // Try again next time
+                    throw e;
+                }
+            }
+            List<Long> shared = jdbcTemplate.queryForList("SELECT version FROM table_versions WHERE name = ?",
+                    Long.class, counter.name);
+            long seen = shared.isEmpty() || shared.get(0) == null ? 0 : shared.get(0);
+            // Our own bump moves the row by exactly one; anything else is another instance's write
+            if (seen != counter.shared + (wrote ? 1 : 0)) {
+                counter.bump();
+            }
+            counter.shared = seen;
+        }
+    }
+
+    // One increment per interval however many writes it covers, so the row never becomes a hot spot
+    private void publish(Counter counter) {
+        if (jdbcTemplate.update("UPDATE table_versions SET version = version + 1 WHERE name = ?", counter.name) == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO table_versions (name, version) VALUES (?, 1)", counter.name);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update("UPDATE table_versions SET version = version + 1 WHERE name = ?", counter.name);
+            }
+        }
+    }
+
+    private Counter counter(Table table) {
+        return table == Table.BOOKS ? books : users;
+    }
+
+    private static final class Counter {
+        private final String name;
+        private final AtomicLong version = new AtomicLong();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile long modifiedAt = System.currentTimeMillis();
+        private long shared; // Row version as of the last sync (0 before the first); only touched by sync()
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        private void bumpLocal() {
+            bump();
+            dirty.set(true);
+        }
+
+        // Time first: a reader that sees the new version never pairs it with the previous timestamp
+        private void bump() {
+            modifiedAt = System.currentTimeMillis();
+            version.incrementAndGet();
+        }
+    }
+}
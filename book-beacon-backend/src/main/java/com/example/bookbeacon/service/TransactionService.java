@@ -1,5 +1,10 @@
 package com.example.bookbeacon.service;
 
+import com.example.bookbeacon.dto.BatchItemResultDTO;
+import com.example.bookbeacon.dto.CursorPageDTO;
+import com.example.bookbeacon.dto.IssueRequestDTO;
+import com.example.bookbeacon.dto.LoanSummaryDTO;
+import com.example.bookbeacon.dto.ReturnRequestDTO;
 import com.example.bookbeacon.dto.TransactionDTO;
 import com.example.bookbeacon.model.Book;
 import com.example.bookbeacon.model.Transaction;
@@ -7,13 +12,30 @@ import com.example.bookbeacon.model.User;
 import com.example.bookbeacon.repository.BookRepository;
 import com.example.bookbeacon.repository.TransactionRepository;
 import com.example.bookbeacon.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Savepoint;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,91 +50,303 @@ public class TransactionService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LookupCache lookupCache;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private LoanPolicyService loanPolicyService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${bookbeacon.circulation.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Timed(value = "bookbeacon.circulation", extraTags = {"operation", "issue"}, histogram = true)
     @Transactional
     public TransactionDTO issueBook(Long userId, Long bookId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found"));
+        return issue(userId, bookId, null);
+    }
+
+    @Timed(value = "bookbeacon.circulation", extraTags = {"operation", "return"}, histogram = true)
+    @Transactional
+    public TransactionDTO returnBook(Long transactionId) {
+        Transaction transaction = transactionRepository.findDetailedById(transactionId)
+                .orElseThrow(() -> new CirculationException("Transaction not found"));
+        return returnLoan(transaction);
+    }
+
+    // One transaction and one commit for the whole batch; each item runs under its own savepoint, so a rejected item
+    // rolls back alone and the rest still commit. Throws IllegalArgumentException for a batch over max-batch-size or
+    // with missing items.
+    @Timed(value = "bookbeacon.circulation", extraTags = {"operation", "issue-batch"}, histogram = true)
+    public List<BatchItemResultDTO> issueBooks(List<IssueRequestDTO> requests) {
+        checkBatch(requests);
+        return new TransactionTemplate(transactionManager).execute(status -> issueAll(requests));
+    }
+
+    private List<BatchItemResultDTO> issueAll(List<IssueRequestDTO> requests) {
+        // Resolve the membership ID / ISBN form with one IN query per side instead of one lookup per item
+        Map<String, Long> userIds = userRepository.findByMembershipIdIn(requests.stream()
+                        .map(IssueRequestDTO::getMembershipId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(User::getMembershipId, User::getId));
+        Map<String, Long> bookIds = findBookIdsByIsbn(requests.stream()
+                .map(IssueRequestDTO::getBookIsbn).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        List<BatchItemResultDTO> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            IssueRequestDTO request = requests.get(i);
+            results.add(runItem(i, () -> {
+                Long userId = request.getUserId() != null ? request.getUserId() : userIds.get(request.getMembershipId());
+                Long bookId = request.getBookId() != null ? request.getBookId() : bookIds.get(request.getBookIsbn());
+                if (userId == null) {
+                    throw new CirculationException("User not found");
+                }
+                if (bookId == null) {
+                    throw new CirculationException("Book not found");
+                }
+                return issue(userId, bookId, request.getDueDate());
+            }));
+        }
+        return results;
+    }
+
+    // Same shape as issueBooks: one commit, one savepoint per item
+    @Timed(value = "bookbeacon.circulation", extraTags = {"operation", "return-batch"}, histogram = true)
+    public List<BatchItemResultDTO> returnBooks(List<ReturnRequestDTO> requests) {
+        checkBatch(requests);
+        return new TransactionTemplate(transactionManager).execute(status -> returnAll(requests));
+    }
+
+    private List<BatchItemResultDTO> returnAll(List<ReturnRequestDTO> requests) {
+        Map<String, Long> bookIds = findBookIdsByIsbn(requests.stream()
+                .map(ReturnRequestDTO::getBookIsbn).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        List<BatchItemResultDTO> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ReturnRequestDTO request = requests.get(i);
+            results.add(runItem(i, () -> returnLoan(findLoanToReturn(request, bookIds))));
+        }
+        return results;
+    }
+
+    // A JDBC savepoint on the batch's connection: HibernateJpaDialect gives JpaTransactionManager no savepoint support,
+    // so PROPAGATION_NESTED is not available. A savepoint rolls back rows but not the persistence context, so the item
+    // flushes before its savepoint is released and the context is cleared afterwards: nothing a rejected item touched
+    // is flushed with the batch. issue and returnLoan register their after-commit work (stats, events, audit, cache
+    // evictions) only after their last check, so a rejected item leaves nothing to run at commit either. Anything but a
+    // CirculationException (the database going away, above all) fails the whole batch and rolls it back.
+    private BatchItemResultDTO runItem(int index, Supplier<TransactionDTO> item) {
+        Session session = entityManager.unwrap(Session.class);
+        Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+        try {
+            TransactionDTO done = item.get();
+            entityManager.flush();
+            session.doWork(connection -> connection.releaseSavepoint(savepoint));
+            return new BatchItemResultDTO(index, true, done, null);
+        } catch (CirculationException e) {
+            session.doWork(connection -> connection.rollback(savepoint));
+            return new BatchItemResultDTO(index, false, null, e.getMessage());
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private void checkBatch(List<?> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch holds at most " + maxBatchSize + " items");
+        }
+        if (requests.contains(null)) {
+            throw new IllegalArgumentException("Batch items must not be null");
+        }
+    }
+
+    private Transaction findLoanToReturn(ReturnRequestDTO request, Map<String, Long> bookIds) {
+        if (request.getTransactionId() != null) {
+            return transactionRepository.findDetailedById(request.getTransactionId())
+                    .orElseThrow(() -> new CirculationException("Transaction not found"));
+        }
+        Long bookId = bookIds.get(request.getBookIsbn());
+        if (bookId == null) {
+            throw new CirculationException("Book not found");
+        }
+        return transactionRepository.findByUserMembershipIdAndBookIdAndStatus(request.getMembershipId(), bookId, "ISSUED")
+                .or(() -> transactionRepository.findByUserMembershipIdAndBookIdAndStatus(
+                        request.getMembershipId(), bookId, "OVERDUE"))
+                .orElseThrow(() -> new CirculationException("No open loan for this member and book"));
+    }
+
+    private Map<String, Long> findBookIdsByIsbn(Set<String> isbns) {
+        return bookRepository.findByIsbnIn(isbns).stream()
+                .collect(Collectors.toMap(Book::getIsbn, Book::getId));
+    }
 
-        if (book.getAvailable() <= 0) {
-            throw new RuntimeException("Book is not available");
+    private TransactionDTO issue(Long userId, Long bookId, LocalDate dueDate) {
+        // A member collecting a READY hold takes the copy set aside for them instead of one from the shelf
+        Long holdId = holdService.claimReadyHold(userId, bookId);
+
+        // Conditional updates claim the copy and the loan slot atomically, no read-check-write race
+        if (holdId == null && bookRepository.decrementAvailable(bookId) == 0) {
+            throw new CirculationException(bookRepository.existsById(bookId) ? "Book is not available" : "Book not found");
         }
 
-        if (user.getBooksIssued() >= 3) {
-            throw new RuntimeException("User has reached maximum book limit");
+        // Loan terms follow the member's role and the book's category; the DTO below reads these same entities
+        LoanPolicy policy = loanPolicyService.current();
+        User borrower = userRepository.findById(userId).orElse(null);
+        Book book = bookRepository.getReferenceById(bookId);
+        int terms = policy.cell(borrower == null ? null : borrower.getRole(), book.getCategory());
+
+        // The copy or hold claimed above goes back with the rollback
+        if (borrower == null || userRepository.incrementBooksIssued(userId, policy.maxLoans(terms)) == 0) {
+            throw new CirculationException(borrower != null ? "User has reached maximum book limit" : "User not found");
+        }
+        // Past the last check, so a batch item rolled back to its savepoint never reports a shelf change
+        if (holdId == null) {
+            statsService.recordShelfChanged(-1);
         }
 
         Transaction transaction = new Transaction();
-        transaction.setUser(user);
+        transaction.setUser(borrower);
         transaction.setBook(book);
         transaction.setIssueDate(LocalDate.now());
-        transaction.setDueDate(LocalDate.now().plusDays(14)); // 2 weeks loan period
+        transaction.setDueDate(dueDate != null ? dueDate : LocalDate.now().plusDays(policy.loanDays(terms)));
         transaction.setStatus("ISSUED");
         transaction.setFine(BigDecimal.ZERO);
 
-        // Update book availability
-        book.setAvailable(book.getAvailable() - 1);
-        bookRepository.save(book);
-
-        // Update user's issued books count
-        user.setBooksIssued(user.getBooksIssued() + 1);
-        userRepository.save(user);
-
         Transaction savedTransaction = transactionRepository.save(transaction);
-        return convertToDTO(savedTransaction);
+        TransactionDTO issued = convertToDTO(savedTransaction);
+        // Cached lookups carry available/booksIssued, which just changed
+        lookupCache.evictBook(bookId, issued.getBookIsbn());
+        lookupCache.evictUser(userId, savedTransaction.getUser().getMembershipId());
+        statsService.recordLoanIssued();
+        eventPublisher.publishEvent(new BookChangedEvent(bookId));
+        eventPublisher.publishEvent(ChangeFeed.loanChange("issued", issued));
+        auditLog.record("loan", issued.getId(), "issued", AuditLog.details(
+                "userId", userId, "bookId", bookId, "dueDate", issued.getDueDate(), "holdId", holdId));
+        return issued;
     }
 
-    @Transactional
-    public TransactionDTO returnBook(Long transactionId) {
-        Transaction transaction = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new RuntimeException("Transaction not found"));
-
+    private TransactionDTO returnLoan(Transaction transaction) {
         if ("RETURNED".equals(transaction.getStatus())) {
-            throw new RuntimeException("Book already returned");
+            throw new CirculationException("Book already returned");
         }
 
-        Book book = transaction.getBook();
-        User user = transaction.getUser();
+        LoanPolicy policy = loanPolicyService.current();
+        int terms = policy.cell(transaction.getUser().getRole(), transaction.getBook().getCategory());
+        BigDecimal fine = BigDecimal.valueOf(policy.fineCents(terms, transaction.getDueDate(), LocalDate.now()), 2);
 
-        // Calculate fine if overdue
-        BigDecimal fine = BigDecimal.ZERO;
-        if (LocalDate.now().isAfter(transaction.getDueDate())) {
-            long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(
-                transaction.getDueDate(), LocalDate.now());
-            fine = BigDecimal.valueOf(daysOverdue).multiply(BigDecimal.valueOf(1.0)); // $1 per day
+        // Only one of two concurrent returns of the same loan gets to release the copy
+        if (transactionRepository.markReturned(transaction.getId(), LocalDate.now(), fine) == 0) {
+            throw new CirculationException("Book already returned");
+        }
+        if (userRepository.decrementBooksIssued(transaction.getUser().getId()) == 0) {
+            throw new CirculationException("User loan count is inconsistent");
         }
+        // Last: it records the shelf change or the READY hold, and fails only before recording either
+        holdService.allocateCopy(transaction.getBook().getId()); // Next hold in line, else back on the shelf
+        lookupCache.evictBook(transaction.getBook().getId(), transaction.getBook().getIsbn());
+        lookupCache.evictUser(transaction.getUser().getId(), transaction.getUser().getMembershipId());
+        statsService.recordLoanReturned("OVERDUE".equals(transaction.getStatus()), transaction.getFine());
 
+        // The loaded transaction is detached by now, so this only shapes the response
         transaction.setReturnDate(LocalDate.now());
         transaction.setStatus("RETURNED");
         transaction.setFine(fine);
+        TransactionDTO returned = convertToDTO(transaction);
+        eventPublisher.publishEvent(new BookChangedEvent(returned.getBookId()));
+        eventPublisher.publishEvent(ChangeFeed.loanChange("returned", returned));
+        auditLog.record("loan", returned.getId(), "returned", AuditLog.details(
+                "userId", returned.getUserId(), "bookId", returned.getBookId(), "fine", fine));
+        return returned;
+    }
 
-        // Update book availability
-        book.setAvailable(book.getAvailable() + 1);
-        bookRepository.save(book);
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TransactionDTO> getTransactions(String status, Long userId, Long bookId,
+                                                         LocalDate issuedFrom, LocalDate issuedTo,
+                                                         boolean includeArchived, String cursor, Integer size) {
+        int pageSize = PageCursor.clampSize(size);
+        // Newest first, so the first page starts below every id
+        long beforeId = cursor == null || cursor.isEmpty() ? Long.MAX_VALUE : PageCursor.decode(cursor).getLastId();
 
-        // Update user's issued books count
-        user.setBooksIssued(user.getBooksIssued() - 1);
-        userRepository.save(user);
+        List<TransactionDTO> transactions = transactionRepository.findPageDTOs(
+                status, userId, bookId, issuedFrom, issuedTo, archivedValues(includeArchived), beforeId,
+                PageRequest.of(0, pageSize + 1));
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        return convertToDTO(savedTransaction);
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            nextCursor = PageCursor.after(null, transactions.get(pageSize - 1).getId()).encode();
+        }
+        return new CursorPageDTO<>(transactions, nextCursor, pageSize);
     }
 
-    public List<TransactionDTO> getUserTransactions(Long userId) {
-        return transactionRepository.findByUserId(userId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    // Keyset over (issueDate, id) descending; the cursor carries the issue date of the last row
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TransactionDTO> getUserTransactions(Long userId, boolean includeArchived, String cursor,
+                                                             Integer size) {
+        int pageSize = PageCursor.clampSize(size);
+        PageCursor position = PageCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<TransactionDTO> transactions = position.getLastId() == 0
+                ? transactionRepository.findHistoryFirstPage(userId, archivedValues(includeArchived), limit)
+                : transactionRepository.findHistoryPage(userId, archivedValues(includeArchived),
+                        issueDateOf(position, cursor), position.getLastId(), limit);
+
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            TransactionDTO last = transactions.get(pageSize - 1);
+            nextCursor = PageCursor.after(last.getIssueDate().toString(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(transactions, nextCursor, pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public LoanSummaryDTO getLoanSummary(Long userId) {
+        TransactionRepository.MemberLoanTotals totals = transactionRepository.aggregateMemberLoans(userId);
+        return new LoanSummaryDTO(userId, totals.getOpenLoans(), totals.getOverdueLoans(),
+                totals.getOutstandingFines(), totals.getLifetimeLoans());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransactionDTO> getBookTransactions(Long bookId, boolean includeArchived) {
+        return transactionRepository.findDTOsByBookId(bookId, archivedValues(includeArchived));
+    }
+
+    // A well-formed cursor can still carry a sort value that is not a date; that is a bad cursor too
+    private static LocalDate issueDateOf(PageCursor position, String cursor) {
+        if (position.getSortValue() == null) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+        try {
+            return LocalDate.parse(position.getSortValue());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
     }
 
-    public List<TransactionDTO> getBookTransactions(Long bookId) {
-        return transactionRepository.findByBookId(bookId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    // Archived loans sit in cold partitions and are only read when a caller asks for them
+    private static List<Boolean> archivedValues(boolean includeArchived) {
+        return includeArchived ? List.of(false, true) : List.of(false);
     }
 
-    private TransactionDTO convertToDTO(Transaction transaction) {
+    TransactionDTO convertToDTO(Transaction transaction) {
         TransactionDTO dto = new TransactionDTO();
         dto.setId(transaction.getId());
         dto.setUserId(transaction.getUser().getId());
@@ -1,13 +1,19 @@
 package com.example.bookbeacon.service;
 
+import com.example.bookbeacon.dto.CursorPageDTO;
 import com.example.bookbeacon.dto.UserDTO;
 import com.example.bookbeacon.model.User;
 import com.example.bookbeacon.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.time.LocalDate;
@@ -16,22 +22,59 @@ import java.time.LocalDate;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final LookupCache lookupCache;
+    private final StatsService statsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuditLog auditLog;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, LookupCache lookupCache, StatsService statsService,
+                       ApplicationEventPublisher eventPublisher, AuditLog auditLog) {
         this.userRepository = userRepository;
+        this.lookupCache = lookupCache;
+        this.statsService = statsService;
+        this.eventPublisher = eventPublisher;
+        this.auditLog = auditLog;
     }
 
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserDTO> getUsers(String role, String status, String sort, String cursor, Integer size) {
+        int pageSize = PageCursor.clampSize(size);
+        PageCursor position = PageCursor.decode(cursor);
+        // Fetch one extra row to learn whether another page follows
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<User> users;
+        if (sort == null || sort.isEmpty() || "id".equals(sort)) {
+            users = userRepository.findPageOrderById(role, status, position.getLastId(), limit);
+        } else if ("name".equals(sort)) {
+            users = userRepository.findPageOrderByName(
+                    role, status, position.getSortValue(), position.getLastId(), limit);
+        } else {
+            throw new IllegalArgumentException("Unsupported sort key " + sort);
+        }
+
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            User last = users.get(pageSize - 1);
+            nextCursor = PageCursor.after("name".equals(sort) ? last.getName() : null, last.getId()).encode();
+        }
+        List<UserDTO> items = users.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
+        return new CursorPageDTO<>(items, nextCursor, pageSize);
     }
 
+    // Read-write, so it is served by the primary: a row read from a lagging replica would stay cached
+    @Cacheable(cacheNames = LookupCache.USERS_BY_ID, unless = "#result == null")
+    @Transactional
     public Optional<UserDTO> getUserById(Long id) {
         return userRepository.findById(id).map(this::convertToDto);
     }
 
+    @Cacheable(cacheNames = LookupCache.USERS_BY_MEMBERSHIP_ID, unless = "#result == null")
+    @Transactional
     public Optional<UserDTO> getUserByMembershipId(String membershipId) {
         return userRepository.findByMembershipId(membershipId).map(this::convertToDto);
     }
@@ -51,13 +94,29 @@ public class UserService {
         if (user.getBooksIssued() == null) {
             user.setBooksIssued(0);
         }
-        return convertToDto(userRepository.save(user));
+        UserDTO created = convertToDto(userRepository.save(user));
+        statsService.recordUserCreated(created.getStatus());
+        eventPublisher.publishEvent(ChangeFeed.userChange("changed", created.getId(), created.getStatus()));
+        auditLog.record("user", created.getId(), "created", AuditLog.details(
+                "membershipId", created.getMembershipId(), "name", created.getName(), "status", created.getStatus()));
+        return created;
     }
 
     @Transactional
     public UserDTO updateUser(Long id, UserDTO userDTO) {
         User existingUser = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with id " + id));
+                .orElseThrow(() -> new NotFoundException("User not found with id " + id));
+        lookupCache.evictUser(id, existingUser.getMembershipId());
+        statsService.recordUserStatusChanged(existingUser.getStatus(), userDTO.getStatus());
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        AuditLog.putChange(changes, "name", existingUser.getName(), userDTO.getName());
+        AuditLog.putChange(changes, "email", existingUser.getEmail(), userDTO.getEmail());
+        AuditLog.putChange(changes, "phone", existingUser.getPhone(), userDTO.getPhone());
+        AuditLog.putChange(changes, "role", existingUser.getRole(), userDTO.getRole());
+        AuditLog.putChange(changes, "membershipId", existingUser.getMembershipId(), userDTO.getMembershipId());
+        AuditLog.putChange(changes, "joinDate", existingUser.getJoinDate(), userDTO.getJoinDate());
+        AuditLog.putChange(changes, "status", existingUser.getStatus(), userDTO.getStatus());
 
         existingUser.setName(userDTO.getName());
         existingUser.setEmail(userDTO.getEmail());
@@ -66,20 +125,27 @@ public class UserService {
         existingUser.setMembershipId(userDTO.getMembershipId());
         existingUser.setJoinDate(userDTO.getJoinDate());
         existingUser.setStatus(userDTO.getStatus());
-        existingUser.setBooksIssued(userDTO.getBooksIssued());
+        // booksIssued is left alone: it counts open loans and only circulation moves it
 
-        return convertToDto(userRepository.save(existingUser));
+        UserDTO updated = convertToDto(userRepository.save(existingUser));
+        eventPublisher.publishEvent(ChangeFeed.userChange("changed", id, updated.getStatus()));
+        auditLog.record("user", id, "updated", changes);
+        return updated;
     }
 
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found with id " + id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("User not found with id " + id));
+        lookupCache.evictUser(id, user.getMembershipId());
+        userRepository.delete(user);
+        statsService.recordUserDeleted(user.getStatus());
+        eventPublisher.publishEvent(ChangeFeed.userChange("deleted", id, null));
+        auditLog.record("user", id, "deleted", AuditLog.details(
+                "membershipId", user.getMembershipId(), "name", user.getName(), "status", user.getStatus()));
     }
 
-    private UserDTO convertToDto(User user) {
+    UserDTO convertToDto(User user) {
         UserDTO dto = new UserDTO();
         dto.setId(user.getId());
         dto.setName(user.getName());
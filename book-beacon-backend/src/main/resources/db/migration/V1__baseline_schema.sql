@@ -0,0 +1,41 @@
+-- Schema as Hibernate created it with ddl-auto=update. IF NOT EXISTS lets this run as a no-op on such databases
+-- (spring.flyway.baseline-version=0), and create everything on an empty one.
+
+CREATE TABLE IF NOT EXISTS books (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title          VARCHAR(255),
+    author         VARCHAR(255),
+    category       VARCHAR(255),
+    isbn           VARCHAR(255) UNIQUE,
+    quantity       INTEGER,
+    available      INTEGER,
+    published_year INTEGER,
+    description    VARCHAR(255),
+    version        BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name          VARCHAR(255),
+    email         VARCHAR(255) UNIQUE,
+    phone         VARCHAR(255),
+    role          VARCHAR(255),
+    membership_id VARCHAR(255) UNIQUE,
+    join_date     DATE,
+    status        VARCHAR(255),
+    books_issued  INTEGER,
+    version       BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT REFERENCES users (id),
+    book_id     BIGINT REFERENCES books (id),
+    issue_date  DATE,
+    due_date    DATE,
+    return_date DATE,
+    status      VARCHAR(255),
+    fine        NUMERIC(38, 2)
+);
+
+CREATE INDEX IF NOT EXISTS idx_transactions_status_due_date ON transactions (status, due_date);
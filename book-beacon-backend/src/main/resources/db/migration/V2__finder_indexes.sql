@@ -0,0 +1,18 @@
+-- One index per repository access path; each is mirrored in the entity's @Table so ddl-auto builds agree.
+
+-- Open loans of a member or a copy: findBy{User,Book}IdAndStatus, the membership ID variants, the return lookup,
+-- and (by prefix) the per-member and per-book histories
+CREATE INDEX IF NOT EXISTS idx_transactions_user_status ON transactions (user_id, status);
+CREATE INDEX IF NOT EXISTS idx_transactions_book_status ON transactions (book_id, status);
+-- Status-filtered listings page by id
+CREATE INDEX IF NOT EXISTS idx_transactions_status_id ON transactions (status, id);
+
+-- Filtered and title-sorted catalog pages
+CREATE INDEX IF NOT EXISTS idx_books_category_id ON books (category, id);
+CREATE INDEX IF NOT EXISTS idx_books_author_id ON books (author, id);
+CREATE INDEX IF NOT EXISTS idx_books_title_id ON books (title, id);
+
+-- Filtered and name-sorted member pages
+CREATE INDEX IF NOT EXISTS idx_users_role_id ON users (role, id);
+CREATE INDEX IF NOT EXISTS idx_users_status_id ON users (status, id);
+CREATE INDEX IF NOT EXISTS idx_users_name_id ON users (name, id);
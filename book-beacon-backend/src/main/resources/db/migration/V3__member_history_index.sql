@@ -0,0 +1,2 @@
+-- Paginated member history, newest first, and the per-member loan summary
+CREATE INDEX IF NOT EXISTS idx_transactions_user_issue_date ON transactions (user_id, issue_date DESC, id DESC);
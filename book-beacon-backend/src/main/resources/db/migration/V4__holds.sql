@@ -0,0 +1,18 @@
+-- Hold queue: one row per reservation, queue_position is dense per book while WAITING
+CREATE TABLE IF NOT EXISTS holds (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id        BIGINT REFERENCES users (id),
+    book_id        BIGINT REFERENCES books (id),
+    status         VARCHAR(255),
+    queue_position INTEGER,
+    placed_at      TIMESTAMP(6),
+    ready_at       TIMESTAMP(6),
+    expires_at     TIMESTAMP(6)
+);
+
+-- Front of a book's queue and the shift after someone leaves it
+CREATE INDEX IF NOT EXISTS idx_holds_book_status_position ON holds (book_id, status, queue_position);
+-- A member's holds, and the READY hold claimed at the desk
+CREATE INDEX IF NOT EXISTS idx_holds_user_status ON holds (user_id, status);
+-- Expiry sweep
+CREATE INDEX IF NOT EXISTS idx_holds_status_expires_at ON holds (status, expires_at);
@@ -0,0 +1,14 @@
+-- Append-only audit log, filled in batches by AuditLog
+CREATE TABLE IF NOT EXISTS audit_events (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    occurred_at TIMESTAMP(6),
+    entity_type VARCHAR(32),
+    entity_id   BIGINT,
+    action      VARCHAR(32),
+    actor       VARCHAR(255),
+    details     VARCHAR(4000)
+);
+
+-- History of one row, and everything in a time range
+CREATE INDEX IF NOT EXISTS idx_audit_events_entity ON audit_events (entity_type, entity_id, occurred_at);
+CREATE INDEX IF NOT EXISTS idx_audit_events_occurred_at ON audit_events (occurred_at);
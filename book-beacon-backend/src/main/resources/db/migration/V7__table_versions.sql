@@ -0,0 +1,7 @@
+-- One row per table whose reads carry an ETag; each instance bumps it after its own writes and polls it for others'
+CREATE TABLE IF NOT EXISTS table_versions (
+    name    VARCHAR(16) PRIMARY KEY,
+    version BIGINT
+);
+
+INSERT INTO table_versions (name, version) VALUES ('books', 0), ('users', 0);
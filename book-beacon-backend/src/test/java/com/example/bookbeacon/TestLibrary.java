@@ -0,0 +1,41 @@
+package com.example.bookbeacon;
+
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// Books and members for tests to build on. Every test class shares one database, so ISBNs and membership IDs
+// have to be unique across the suite.
+@Component
+public class TestLibrary {
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	// Titled after its ISBN, with every copy on the shelf
+	public static Book book(String isbn, int copies) {
+		return new Book(null, isbn, "Author", "Fiction", isbn, copies, copies, 2024, null, 0L);
+	}
+
+	// An active Student named after their membership ID, with no loans
+	public static User member(String membershipId) {
+		return new User(null, membershipId, membershipId + "@example.com", null, "Student", membershipId,
+				LocalDate.now(), "Active", 0, 0L);
+	}
+
+	public Book saveBook(String isbn, int copies) {
+		return bookRepository.save(book(isbn, copies));
+	}
+
+	public User saveUser(String membershipId) {
+		return userRepository.save(member(membershipId));
+	}
+}
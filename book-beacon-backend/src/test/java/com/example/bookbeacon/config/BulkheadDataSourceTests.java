@@ -0,0 +1,70 @@
+package com.example.bookbeacon.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadDataSourceTests {
+
+	private JdbcDataSource target;
+
+	@BeforeEach
+	void setUp() {
+		target = new JdbcDataSource();
+		target.setURL("jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1");
+	}
+
+	@Test
+	void waitingCallerGetsPermitWhenConnectionIsClosed() throws Exception {
+		BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, 1, Duration.ofSeconds(1));
+		Connection first = bulkhead.getConnection();
+
+		CompletableFuture<Connection> second = CompletableFuture.supplyAsync(() -> {
+			try {
+				return bulkhead.getConnection();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		Thread.sleep(100);
+		assertThat(second).isNotDone();
+
+		first.close();
+		first.close(); // A second close must not hand out an extra permit
+		Connection granted = second.get(5, TimeUnit.SECONDS);
+		assertThat(granted.isValid(1)).isTrue();
+		assertThatThrownBy(bulkhead::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+		granted.close();
+	}
+
+	@Test
+	void callersBeyondQueueLimitFailFast() throws Exception {
+		BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, 0, Duration.ofSeconds(30));
+		try (Connection held = bulkhead.getConnection()) {
+			long start = System.nanoTime();
+			assertThatThrownBy(bulkhead::getConnection)
+					.isInstanceOf(SQLTransientConnectionException.class)
+					.hasMessageContaining("bulkhead full");
+			assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+		}
+	}
+
+	@Test
+	void waitingCallerTimesOut() throws Exception {
+		BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, 10, Duration.ofMillis(50));
+		try (Connection held = bulkhead.getConnection()) {
+			assertThatThrownBy(bulkhead::getConnection)
+					.isInstanceOf(SQLTransientConnectionException.class)
+					.hasMessageContaining("Timed out");
+		}
+	}
+}
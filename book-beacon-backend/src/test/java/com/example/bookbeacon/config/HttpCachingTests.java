@@ -0,0 +1,74 @@
+package com.example.bookbeacon.config;
+
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.UserRepository;
+import com.example.bookbeacon.service.BookService;
+import com.example.bookbeacon.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class HttpCachingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void unchangedCatalogIsRevalidatedWithoutQueryingAndWritesChangeTheTag() throws Exception {
+		BookDTO book = bookService.createBook(new BookDTO(null, "Cached", "Author", "Fiction", "etag-1",
+				1, null, 2001, null));
+		String etag = mockMvc.perform(get("/api/books"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).startsWith("W/\"books-");
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+
+		// A loan moves the book's availability, and the member's loan count
+		User user = userRepository.save(new User(null, "Tagged", "etag@example.com", null, "Student",
+				"etag-1", LocalDate.now(), "Active", 0, 0L));
+		String usersEtag = mockMvc.perform(get("/api/users/" + user.getId()))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		transactionService.issueBook(user.getId(), book.getId());
+		mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.IF_NONE_MATCH, usersEtag))
+				.andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.bookbeacon.config;
+
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import com.example.bookbeacon.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "bookbeacon.metrics.slow-query-threshold=PT0S")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class MetricsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void circulationAndRequestsAreMeasuredAndScraped(CapturedOutput output) throws Exception {
+		Book book = bookRepository.save(new Book(null, "Measured", "Author", "Fiction", "metrics-1", 1, 1, 2001, null, 0L));
+		User user = userRepository.save(new User(null, "Metered", "metrics@example.com", "555", "Student",
+				"metrics-1", LocalDate.now(), "ACTIVE", 0, 0L));
+		transactionService.issueBook(user.getId(), book.getId());
+
+		mockMvc.perform(get("/api/books/" + book.getId())).andExpect(status().isOk());
+		mockMvc.perform(get("/api/transactions").param("userId", user.getId().toString())).andExpect(status().isOk());
+
+		assertThat(registry.get("bookbeacon.circulation").tag("operation", "issue").timer().count()).isEqualTo(1);
+		assertThat(registry.get("bookbeacon.db.statements").tag("uri", "/api/books/{id}").summary().totalAmount())
+				.isEqualTo(1);
+		assertThat(output).contains("Slow query TransactionRepository.findPageDTOs")
+				.contains("SELECT new com.example.bookbeacon.dto.TransactionDTO");
+
+		String scrape = mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertThat(scrape).contains("bookbeacon_circulation_seconds_bucket", "bookbeacon_db_statements_bucket",
+				"http_server_requests_seconds_bucket", "spring_data_repository_invocations_seconds_bucket",
+				"hikaricp_connections_acquire_seconds_bucket", "cache_gets_total");
+	}
+}
@@ -0,0 +1,115 @@
+package com.example.bookbeacon.config;
+
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.service.BookService;
+import com.example.bookbeacon.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The "replica" is a second pool on the test database; replication positions come from a stub table
+@SpringBootTest(properties = {
+		"bookbeacon.datasource.replicas=jdbc:h2:mem:library_db;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"bookbeacon.datasource.primary-position-query=SELECT position FROM replication_stub WHERE node = 'primary'",
+		"bookbeacon.datasource.replica.position-query=SELECT position FROM replication_stub WHERE node = 'replica'",
+		"bookbeacon.datasource.replica.lag-check-interval=PT1H"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+	private ReadWriteRoutingDataSource routing;
+
+	@BeforeEach
+	void setUp() {
+		routing = DataSourceUnwrapper.unwrap(dataSource, ReadWriteRoutingDataSource.class);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS replication_stub (node VARCHAR(16) PRIMARY KEY, position BIGINT)");
+		positions(100, 100L);
+	}
+
+	@Test
+	void readOnlyTransactionsUseTheReplicaUnlessItIsUnavailable() {
+		long replicaReads = routing.getReplicaReads();
+		transactionService.getTransactions(null, null, null, null, null, false, null, 10);
+		assertThat(routing.getReplicaReads()).isEqualTo(replicaReads + 1);
+		assertThat(routing.getReplicas().get(0).getPool().getHikariPoolMXBean().getTotalConnections()).isPositive();
+
+		bookService.createBook(new BookDTO(null, "Routed", "Author", "Fiction", "replica-1", 1, null, 2001, null));
+		assertThat(routing.getReplicaReads()).isEqualTo(replicaReads + 1);
+
+		positions(200, null); // Not replaying: no position
+		long noReplicaReads = routing.getNoReplicaReads();
+		transactionService.getTransactions(null, null, null, null, null, false, null, 10);
+		assertThat(routing.getReplicaReads()).isEqualTo(replicaReads + 1);
+		assertThat(routing.getNoReplicaReads()).isEqualTo(noReplicaReads + 1);
+	}
+
+	@Test
+	void clientReadsFromThePrimaryUntilTheReplicaHasItsWrite() throws Exception {
+		mockMvc.perform(post("/api/books").header(ReadYourWritesFilter.CLIENT_HEADER, "writer")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"title\":\"Fresh\",\"author\":\"Author\",\"category\":\"Fiction\","
+								+ "\"isbn\":\"replica-2\",\"quantity\":1,\"publishedYear\":2001}"))
+				.andExpect(status().isCreated());
+		positions(200, 100L); // The write is at 200, the replica still at 100
+
+		long replicaReads = routing.getReplicaReads();
+		long heldBack = routing.getReadYourWritesReads();
+		mockMvc.perform(get("/api/transactions").header(ReadYourWritesFilter.CLIENT_HEADER, "writer"))
+				.andExpect(status().isOk());
+		assertThat(routing.getReadYourWritesReads()).isEqualTo(heldBack + 1);
+		mockMvc.perform(get("/api/transactions").header(ReadYourWritesFilter.CLIENT_HEADER, "someone-else"))
+				.andExpect(status().isOk());
+		assertThat(routing.getReplicaReads()).isEqualTo(replicaReads + 1);
+		// The catalog ETag already names the new book, which the replica does not have yet
+		mockMvc.perform(get("/api/books").header(ReadYourWritesFilter.CLIENT_HEADER, "someone-else"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+		assertThat(routing.getReplicaReads()).isEqualTo(replicaReads + 2);
+
+		positions(200, 200L);
+		mockMvc.perform(get("/api/transactions").header(ReadYourWritesFilter.CLIENT_HEADER, "writer"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/books").header(ReadYourWritesFilter.CLIENT_HEADER, "someone-else"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+		assertThat(routing.getReplicaReads()).isEqualTo(replicaReads + 4);
+		assertThat(routing.getReadYourWritesReads()).isEqualTo(heldBack + 1);
+	}
+
+	private void positions(long primary, Long replica) {
+		jdbcTemplate.update("MERGE INTO replication_stub KEY (node) VALUES ('primary', ?), ('replica', ?)",
+				primary, replica);
+		routing.checkLag();
+	}
+}
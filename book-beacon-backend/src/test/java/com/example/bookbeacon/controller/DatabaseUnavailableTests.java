@@ -0,0 +1,115 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.dto.IssueRequestDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import com.example.bookbeacon.service.BookService;
+import com.example.bookbeacon.service.LoanPolicyService;
+import com.example.bookbeacon.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A full bulkhead or pool must reach clients as 503 + Retry-After, not as the 404/500 of a controller's catch-all
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DatabaseUnavailableTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private BookService bookService;
+
+	@MockBean
+	private UserService userService;
+
+	@SpyBean
+	private LoanPolicyService loanPolicyService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void bulkheadRejectionIsServiceUnavailable() throws Exception {
+		CannotCreateTransactionException rejected = new CannotCreateTransactionException("Could not open JPA "
+				+ "EntityManager", new SQLTransientConnectionException("Database bulkhead full"));
+		when(bookService.updateBook(anyLong(), any())).thenThrow(rejected);
+		when(userService.createUser(any())).thenThrow(rejected);
+
+		mockMvc.perform(put("/api/books/1").contentType(MediaType.APPLICATION_JSON).content("{}"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+		mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON).content("{}"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+	}
+
+	@Test
+	void connectionTimeoutOutsideATransactionIsServiceUnavailable() throws Exception {
+		TransientDataAccessResourceException timedOut = new TransientDataAccessResourceException("Timed out waiting "
+				+ "for a connection", new SQLTransientConnectionException("Timed out"));
+		when(bookService.createBook(any())).thenThrow(timedOut);
+		when(userService.updateUser(anyLong(), any())).thenThrow(timedOut);
+
+		mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON).content("{}"))
+				.andExpect(status().isServiceUnavailable());
+		mockMvc.perform(put("/api/users/1").contentType(MediaType.APPLICATION_JSON).content("{}"))
+				.andExpect(status().isServiceUnavailable());
+	}
+
+	// A batch item losing its connection fails the batch, rather than reporting every item refused under a 200
+	@Test
+	void connectionLostInABatchItemIsServiceUnavailable() throws Exception {
+		Book book = bookRepository.save(new Book(null, "Unavailable", "Author", "Fiction", "unavailable-batch", 1, 1,
+				2020, null, 0L));
+		User user = userRepository.save(new User(null, "Unavailable", "unavailable-batch@example.com", null, "Student",
+				"unavailable-batch", LocalDate.now(), "Active", 0, 0L));
+		doThrow(new TransientDataAccessResourceException("Timed out waiting for a connection"))
+				.when(loanPolicyService).current();
+		try {
+			mockMvc.perform(post("/api/transactions/issue/batch").contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(List.of(
+									new IssueRequestDTO(user.getId(), book.getId(), null, null, null)))))
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+		} finally {
+			reset(loanPolicyService);
+		}
+		assertThat(bookRepository.findById(book.getId()).get().getAvailable()).isEqualTo(1);
+	}
+}
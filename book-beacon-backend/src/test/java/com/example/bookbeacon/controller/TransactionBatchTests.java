@@ -0,0 +1,147 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.TestLibrary;
+import com.example.bookbeacon.dto.IssueRequestDTO;
+import com.example.bookbeacon.dto.ReturnRequestDTO;
+import com.example.bookbeacon.dto.StatsDTO;
+import com.example.bookbeacon.dto.TransactionDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.TransactionRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import com.example.bookbeacon.service.StatsService;
+import com.example.bookbeacon.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TransactionBatchTests {
+
+	@Autowired
+	private TestLibrary library;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private StatsService statsService;
+
+	@Test
+	void rejectedItemsRollBackAloneAndTheRestCommit() throws Exception {
+		Book book = library.saveBook("batch-partial", 1);
+		User first = library.saveUser("batch-partial-1");
+		User second = library.saveUser("batch-partial-2");
+
+		send("/api/transactions/issue/batch", List.of(
+				new IssueRequestDTO(null, null, first.getMembershipId(), book.getIsbn(), null),
+				new IssueRequestDTO(second.getId(), book.getId(), null, null, null),
+				new IssueRequestDTO(null, null, second.getMembershipId(), "batch-no-such-isbn", null),
+				new IssueRequestDTO(Long.MAX_VALUE, book.getId(), null, null, null)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].success").value(true))
+				.andExpect(jsonPath("$[1].error").value("Book is not available"))
+				.andExpect(jsonPath("$[2].error").value("Book not found"))
+				.andExpect(jsonPath("$[3].success").value(false));
+
+		assertThat(bookRepository.findById(book.getId()).get().getAvailable()).isZero();
+		assertThat(userRepository.findById(first.getId()).get().getBooksIssued()).isEqualTo(1);
+		assertThat(userRepository.findById(second.getId()).get().getBooksIssued()).isZero();
+		assertThat(transactionRepository.findByBookIdAndStatus(book.getId(), "ISSUED")).hasSize(1);
+	}
+
+	// The first item takes a copy off the shelf before failing its limit check; its savepoint gives the copy back and
+	// nothing it did reaches the counters when the batch commits
+	@Test
+	void itemRolledBackToItsSavepointLeavesNoTrace() throws Exception {
+		Book book = library.saveBook("batch-savepoint", 2);
+		User atLimit = library.saveUser("batch-savepoint-limit");
+		atLimit.setBooksIssued(3);
+		userRepository.save(atLimit);
+		User member = library.saveUser("batch-savepoint-member");
+		StatsDTO before = statsService.getStats();
+
+		send("/api/transactions/issue/batch", List.of(
+				new IssueRequestDTO(atLimit.getId(), book.getId(), null, null, null),
+				new IssueRequestDTO(member.getId(), book.getId(), null, null, null)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].error").value("User has reached maximum book limit"))
+				.andExpect(jsonPath("$[1].success").value(true));
+
+		StatsDTO after = statsService.getStats();
+		assertThat(after.getAvailableCopies() - before.getAvailableCopies()).isEqualTo(-1);
+		assertThat(after.getOpenLoans() - before.getOpenLoans()).isEqualTo(1);
+		assertThat(bookRepository.findById(book.getId()).get().getAvailable()).isEqualTo(1);
+		assertThat(userRepository.findById(atLimit.getId()).get().getBooksIssued()).isEqualTo(3);
+		assertThat(transactionRepository.findByBookIdAndStatus(book.getId(), "ISSUED")).hasSize(1);
+	}
+
+	@Test
+	void duplicateReturnFailsOnlyTheRepeatedItem() throws Exception {
+		Book book = library.saveBook("batch-duplicate", 2);
+		User user = library.saveUser("batch-duplicate");
+		TransactionDTO loan = transactionService.issueBook(user.getId(), book.getId());
+
+		send("/api/transactions/return/batch", List.of(
+				new ReturnRequestDTO(loan.getId(), null, null),
+				new ReturnRequestDTO(loan.getId(), null, null),
+				new ReturnRequestDTO(null, user.getMembershipId(), "batch-no-such-isbn")))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].success").value(true))
+				.andExpect(jsonPath("$[0].transaction.status").value("RETURNED"))
+				.andExpect(jsonPath("$[1].error").value("Book already returned"))
+				.andExpect(jsonPath("$[2].error").value("Book not found"));
+
+		assertThat(bookRepository.findById(book.getId()).get().getAvailable()).isEqualTo(2);
+		assertThat(userRepository.findById(user.getId()).get().getBooksIssued()).isZero();
+	}
+
+	@Test
+	void oversizeBatchIsRejectedBeforeAnyItemRuns() throws Exception {
+		Book book = library.saveBook("batch-oversize", 1);
+		User user = library.saveUser("batch-oversize");
+
+		send("/api/transactions/issue/batch", Collections.nCopies(501,
+				new IssueRequestDTO(user.getId(), book.getId(), null, null, null)))
+				.andExpect(status().isBadRequest());
+		assertThat(bookRepository.findById(book.getId()).get().getAvailable()).isEqualTo(1);
+	}
+
+	private ResultActions send(String uri, List<?> body) throws Exception {
+		return mockMvc.perform(post(uri)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(body)));
+	}
+}
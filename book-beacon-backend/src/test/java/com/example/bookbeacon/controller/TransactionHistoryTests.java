@@ -0,0 +1,74 @@
+package com.example.bookbeacon.controller;
+
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import com.example.bookbeacon.service.TransactionService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TransactionHistoryTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void historyPagesFollowTheCursor() throws Exception {
+		User user = userRepository.save(new User(null, "History Member", "history@example.com", null, "Student",
+				"history-1", LocalDate.now(), "Active", 0, 0L));
+		for (int i = 0; i < 3; i++) {
+			Book book = bookRepository.save(new Book(null, "History", "Author", "Fiction", "history-" + i, 1, 1, 2020,
+					null, 0L));
+			transactionService.issueBook(user.getId(), book.getId());
+		}
+
+		String body = mockMvc.perform(get("/api/transactions/user/{id}", user.getId()).param("size", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items.length()").value(2))
+				.andReturn().getResponse().getContentAsString();
+		String cursor = JsonPath.read(body, "$.nextCursor");
+
+		mockMvc.perform(get("/api/transactions/user/{id}", user.getId()).param("size", "2").param("cursor", cursor))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items.length()").value(1))
+				.andExpect(jsonPath("$.nextCursor").value(nullValue()));
+	}
+
+	@Test
+	void cursorWhoseSortValueIsNotADateIsABadRequest() throws Exception {
+		String cursor = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("not-a-date\n42".getBytes(StandardCharsets.UTF_8));
+
+		mockMvc.perform(get("/api/transactions/user/{id}", 1).param("cursor", cursor))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/transactions/user/{id}", 1).param("cursor", "%%%"))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,115 @@
+package com.example.bookbeacon.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// V6 rebuilds transactions as a partitioned table by copying the rows across, so it runs here against a real
+// PostgreSQL holding V5 data, the state every existing deployment is in
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresPartitionMigrationTests {
+
+	@Container
+	private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static JdbcTemplate jdbcTemplate;
+
+	private static long userId;
+	private static long oldLoanId;
+	private static long undatedLoanId;
+	private static long openLoanId;
+
+	@BeforeAll
+	static void migrateFromPopulatedV5() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(),
+				postgres.getUsername(), postgres.getPassword());
+		jdbcTemplate = new JdbcTemplate(dataSource);
+
+		flyway(dataSource).target("5").load().migrate();
+		userId = insert("INSERT INTO users (name, email, membership_id, status, books_issued) "
+				+ "VALUES ('Member', 'partition@example.com', 'partition-1', 'Active', 1) RETURNING id");
+		long otherUserId = insert("INSERT INTO users (name, email, membership_id, status, books_issued) "
+				+ "VALUES ('Other', 'partition-2@example.com', 'partition-2', 'Active', 0) RETURNING id");
+		long bookId = insert("INSERT INTO books (title, isbn, quantity, available) "
+				+ "VALUES ('Partitioned', 'partition-1', 2, 1) RETURNING id");
+		oldLoanId = loan(userId, bookId, "DATE '2019-03-01'", "RETURNED");
+		loan(otherUserId, bookId, "DATE '2024-06-10'", "RETURNED");
+		undatedLoanId = loan(otherUserId, bookId, "NULL", "RETURNED");
+		openLoanId = loan(userId, bookId, "CURRENT_DATE", "ISSUED");
+
+		flyway(dataSource).load().migrate();
+	}
+
+	@Test
+	void everyLoanIsCopiedWithItsIdAndReferences() {
+		// Other tests add and archive loans; the copied ones are those up to the last id V5 handed out
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE id <= ?", Integer.class,
+				openLoanId)).isEqualTo(4);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM transactions", Integer.class))
+				.isEqualTo(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Integer.class));
+		assertThat(jdbcTemplate.queryForList("SELECT id FROM transactions WHERE user_id = ? ORDER BY id",
+				Long.class, userId)).containsExactly(oldLoanId, openLoanId);
+		assertThat(jdbcTemplate.queryForObject("SELECT issue_date FROM transactions WHERE id = ?",
+				LocalDate.class, undatedLoanId)).isEqualTo(LocalDate.of(1970, 1, 1));
+
+		assertThat(jdbcTemplate.queryForList("SELECT conname FROM pg_constraint "
+				+ "WHERE conrelid = 'transactions'::regclass AND contype = 'f'", String.class))
+				.containsExactlyInAnyOrder("transactions_user_id_fkey", "transactions_book_id_fkey");
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_tables "
+				+ "WHERE tablename = 'transactions_unpartitioned'", Integer.class)).isZero();
+	}
+
+	@Test
+	void newLoansTakeIdsAfterTheCopiedOnes() {
+		long bookId = insert("INSERT INTO books (title, isbn, quantity, available) "
+				+ "VALUES ('Sequence', 'partition-2', 1, 1) RETURNING id");
+		long id = loan(userId, bookId, "CURRENT_DATE", "ISSUED");
+
+		assertThat(id).isGreaterThan(jdbcTemplate.queryForObject(
+				"SELECT MAX(id) FROM transactions WHERE id <> ?", Long.class, id));
+	}
+
+	@Test
+	void archivedLoansLandInPartitionsTheMigrationCreated() {
+		int currentYear = LocalDate.now().getYear();
+		assertThat(jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+				+ "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'transactions_cold'::regclass",
+				String.class))
+				.contains("transactions_cold_2019", "transactions_cold_" + currentYear,
+						"transactions_cold_" + (currentYear + 5), "transactions_cold_default");
+
+		jdbcTemplate.update("UPDATE transactions SET archived = TRUE WHERE id IN (?, ?)", oldLoanId, undatedLoanId);
+
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+				"SELECT id, tableoid::regclass::text AS partition FROM transactions WHERE archived");
+		assertThat(rows).extracting(row -> row.get("partition"))
+				.containsExactlyInAnyOrder("transactions_cold_2019", "transactions_cold_default");
+	}
+
+	private static FluentConfiguration flyway(DriverManagerDataSource dataSource) {
+		return Flyway.configure()
+				.dataSource(dataSource)
+				.locations("classpath:db/migration", "classpath:db/vendor/postgresql");
+	}
+
+	private static long loan(long userId, long bookId, String issueDate, String status) {
+		return insert("INSERT INTO transactions (user_id, book_id, issue_date, status) VALUES ("
+				+ userId + ", " + bookId + ", " + issueDate + ", '" + status + "') RETURNING id");
+	}
+
+	private static long insert(String sql) {
+		return jdbcTemplate.queryForObject(sql, Long.class);
+	}
+}
@@ -0,0 +1,37 @@
+package com.example.bookbeacon.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The Flyway migrations must build exactly the schema the entities map (ddl-auto=validate, as in prod)
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:migrated;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaMigrationTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void migrationsCreateFinderIndexes() {
+		assertThat(jdbcTemplate.queryForList(
+				"SELECT index_name FROM information_schema.indexes WHERE table_schema = 'public'", String.class))
+				.contains("idx_transactions_status_due_date", "idx_transactions_user_status",
+						"idx_transactions_book_status", "idx_transactions_status_id",
+						"idx_transactions_user_issue_date", "idx_books_category_id", "idx_books_author_id",
+						"idx_books_title_id", "idx_users_role_id", "idx_users_status_id", "idx_users_name_id",
+						"idx_holds_book_status_position", "idx_holds_user_status", "idx_holds_status_expires_at",
+						"idx_audit_events_entity", "idx_audit_events_occurred_at",
+						"idx_transactions_archive_candidates");
+	}
+}
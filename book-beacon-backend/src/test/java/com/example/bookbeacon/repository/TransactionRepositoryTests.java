@@ -0,0 +1,115 @@
+package com.example.bookbeacon.repository;
+
+import com.example.bookbeacon.dto.TransactionDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.Transaction;
+import com.example.bookbeacon.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Guards the transaction finders against sliding back into N+1 selects
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionRepositoryTests {
+
+	private static final int LOANS = 6;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	private Statistics statistics;
+	private User user;
+	private Book book;
+
+	@BeforeEach
+	void seed() {
+		user = entityManager.persist(new User(null, "Ada", "ada@example.com", null, "Student",
+				"M-1", LocalDate.now(), "Active", 0, 0L));
+		book = entityManager.persist(new Book(null, "First", "Author", "Fiction", "isbn-0", 1, 1, 2000, null, 0L));
+		for (int i = 0; i < LOANS; i++) {
+			// Every loan gets its own user and book so per-row lazy loading would show up as extra selects
+			User borrower = i == 0 ? user : entityManager.persist(new User(null, "User " + i, "u" + i + "@example.com",
+					null, "Student", "M-" + (i + 1), LocalDate.now(), "Active", 1, 0L));
+			Book copy = i == 0 ? book : entityManager.persist(new Book(null, "Title " + i, "Author", "Fiction",
+					"isbn-" + i, 1, 0, 2000, null, 0L));
+			entityManager.persist(new Transaction(null, borrower, copy, LocalDate.now(), LocalDate.now().plusDays(14),
+					null, "ISSUED", BigDecimal.ZERO, false));
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void dtoProjectionsUseOneStatement() {
+		assertThat(transactionRepository.findHistoryFirstPage(user.getId(), List.of(false), PageRequest.of(0, 10)))
+				.singleElement()
+				.satisfies(dto -> assertThat(dto.getBookTitle()).isEqualTo("First"));
+		assertThat(transactionRepository.findDTOsByBookId(book.getId(), List.of(false))).singleElement()
+				.satisfies(dto -> assertThat(dto.getUserName()).isEqualTo("Ada"));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void memberHistoryPagesNewestFirstAndSummaryIsOneStatement() {
+		Book second = entityManager.persist(new Book(null, "Second", "Author", "Fiction", "isbn-x", 1, 1, 2000, null, 0L));
+		User borrower = entityManager.find(User.class, user.getId());
+		entityManager.persist(new Transaction(null, borrower, second, LocalDate.now().minusDays(30),
+				LocalDate.now().minusDays(16), null, "OVERDUE", new BigDecimal("16.00"), false));
+		entityManager.persist(new Transaction(null, borrower, second, LocalDate.now().minusDays(60),
+				LocalDate.now().minusDays(46), LocalDate.now().minusDays(50), "RETURNED", BigDecimal.ZERO, false));
+		entityManager.flush();
+		entityManager.clear();
+		statistics.clear();
+
+		List<TransactionDTO> first = transactionRepository.findHistoryFirstPage(user.getId(), List.of(false),
+				PageRequest.of(0, 2));
+		assertThat(first).extracting(TransactionDTO::getStatus).containsExactly("ISSUED", "OVERDUE");
+		TransactionDTO last = first.get(1);
+		assertThat(transactionRepository.findHistoryPage(user.getId(), List.of(false), last.getIssueDate(), last.getId(),
+				PageRequest.of(0, 2))).extracting(TransactionDTO::getStatus).containsExactly("RETURNED");
+
+		TransactionRepository.MemberLoanTotals totals = transactionRepository.aggregateMemberLoans(user.getId());
+		assertThat(totals.getLifetimeLoans()).isEqualTo(3);
+		assertThat(totals.getOpenLoans()).isEqualTo(2);
+		assertThat(totals.getOverdueLoans()).isEqualTo(1);
+		assertThat(totals.getOutstandingFines()).isEqualByComparingTo("16");
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+	}
+
+	@Test
+	void entityFindersFetchUserAndBookInOneStatement() {
+		List<Transaction> issued = transactionRepository.findByBookIdAndStatus(book.getId(), "ISSUED");
+		issued.forEach(t -> {
+			t.getUser().getName();
+			t.getBook().getTitle();
+		});
+		assertThat(issued).hasSize(1);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isEqualTo(3L);
+	}
+}
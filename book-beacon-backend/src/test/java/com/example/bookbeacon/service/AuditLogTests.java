@@ -0,0 +1,114 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.AuditEventDTO;
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.TransactionDTO;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class AuditLogTests {
+
+	@Autowired
+	private AuditLog auditLog;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void committedMutationsAreLoggedAndQueryableByEntityAndTime() {
+		LocalDateTime before = LocalDateTime.now();
+		BookDTO book = bookService.createBook(new BookDTO(null, "Audited", "Author", "Fiction", "audit-1",
+				2, null, 2001, null));
+		BookDTO edit = new BookDTO(null, "Audited, 2nd ed.", "Author", "Fiction", "audit-1", 3, null, 2001, null);
+		bookService.updateBook(book.getId(), edit);
+		User user = userRepository.save(new User(null, "Auditor", "audit@example.com", null, "Student",
+				"audit-1", LocalDate.now(), "Active", 0, 0L));
+		TransactionDTO loan = transactionService.issueBook(user.getId(), book.getId());
+
+		// Rolled back: must not appear
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			bookService.updateBook(book.getId(), new BookDTO(null, "Never", "Author", "Fiction", "audit-1",
+					3, null, 2001, null));
+			status.setRollbackOnly();
+		});
+		auditLog.flush();
+
+		List<AuditEventDTO> bookEvents = auditLog.getEvents("book", book.getId(), before, null, null, null).getItems();
+		assertThat(bookEvents).extracting(AuditEventDTO::getAction).containsExactly("updated", "created");
+		assertThat(bookEvents.get(0).getDetails())
+				.contains("\"title\":[\"Audited\",\"Audited, 2nd ed.\"]", "\"quantity\":[2,3]")
+				.doesNotContain("author");
+		assertThat(auditLog.getEvents("loan", loan.getId(), null, null, null, null).getItems())
+				.singleElement().satisfies(event -> assertThat(event.getAction()).isEqualTo("issued"));
+		assertThat(auditLog.getEvents("book", book.getId(), LocalDateTime.now(), null, null, null).getItems())
+				.isEmpty();
+	}
+
+	@Test
+	void oversizeActorAndDetailsFitTheirColumnsAndLaterEntriesStillGetWritten() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("X-Actor", "a".repeat(5000));
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		try {
+			auditLog.record("audit-test", 1L, "oversize", AuditLog.details("notes", "b".repeat(10_000)));
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+		auditLog.record("audit-test", 1L, "after", null);
+
+		List<AuditEventDTO> events = awaitEvents("audit-test", 1L, 2);
+		assertThat(events).extracting(AuditEventDTO::getAction).containsExactly("after", "oversize");
+		assertThat(events.get(1).getActor()).hasSize(255);
+		assertThat(events.get(1).getDetails()).isEqualTo("{\"truncated\":true,\"length\":10012}");
+	}
+
+	@Test
+	void rowTheDatabaseRefusesIsDroppedAndTheRestOfItsBatchWritten() throws Exception {
+		auditLog.record("audit-test", 2L, "before", null);
+		auditLog.record("an-entity-type-longer-than-its-column", 2L, "refused", null);
+		auditLog.record("audit-test", 2L, "after", null);
+
+		assertThat(awaitEvents("audit-test", 2L, 2)).extracting(AuditEventDTO::getAction)
+				.containsExactlyInAnyOrder("before", "after");
+		auditLog.record("audit-test", 2L, "later", null);
+		assertThat(awaitEvents("audit-test", 2L, 3)).hasSize(3);
+	}
+
+	// The writer thread may hold some of the entries when flush() runs, so wait for it as well
+	private List<AuditEventDTO> awaitEvents(String entityType, Long entityId, int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		List<AuditEventDTO> events;
+		do {
+			auditLog.flush();
+			events = auditLog.getEvents(entityType, entityId, null, null, null, null).getItems();
+			Thread.sleep(10);
+		} while (events.size() < count && System.currentTimeMillis() < deadline);
+		return events;
+	}
+}
@@ -0,0 +1,110 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.BookImportErrorDTO;
+import com.example.bookbeacon.dto.BookImportResultDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BookImportServiceTests {
+
+	@Autowired
+	private BookImportService bookImportService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void csvImportInsertsUpdatesAndReportsBadRows() {
+		bookRepository.save(new Book(null, "Old Title", "Someone", "Fiction", "import-csv-1", 2, 2, 2000, null, 0L));
+
+		BookImportResultDTO result = bookImportService.importCsv(stream(
+				"ISBN,Title,Author,Quantity,Published_Year,Description\r\n"
+						+ "import-csv-1,New Title,Someone,4,2001,\"Second edition, revised\"\r\n"
+						+ "import-csv-2,\"Quoted \"\"Title\"\"\",Another,3,,\"Spans\ntwo lines\"\r\n"
+						+ "import-csv-3,No Quantity,Nobody,,,\r\n"
+						+ "import-csv-4,Bad Year,Nobody,1,soon,\r\n"
+						+ "\r\n"
+						+ "import-csv-2,Quoted again,Another,5,,\r\n"));
+
+		assertThat(result.getAborted()).isNull();
+		assertThat(result.getRowsRead()).isEqualTo(5);
+		assertThat(result.getInserted()).isEqualTo(1);
+		assertThat(result.getUpdated()).isEqualTo(2);
+		assertThat(result.getFailed()).isEqualTo(2);
+		assertThat(result.getErrors()).extracting(BookImportErrorDTO::getRow).containsExactly(3L, 4L);
+
+		assertThat(bookRepository.findByIsbn("import-csv-1")).get().satisfies(book -> {
+			assertThat(book.getTitle()).isEqualTo("New Title");
+			assertThat(book.getQuantity()).isEqualTo(4);
+			assertThat(book.getAvailable()).isEqualTo(4);
+			assertThat(book.getDescription()).isEqualTo("Second edition, revised");
+		});
+		assertThat(bookRepository.findByIsbn("import-csv-2")).get().satisfies(book -> {
+			assertThat(book.getTitle()).isEqualTo("Quoted again");
+			assertThat(book.getQuantity()).isEqualTo(5);
+		});
+		assertThat(bookService.searchBooks("quoted again", 0, 10).getTotal()).isEqualTo(1);
+	}
+
+	@Test
+	void quantityCannotDropBelowCopiesOnLoan() {
+		Book book = bookRepository.save(new Book(null, "On Loan", "Author", "Fiction", "import-loan", 2, 2, 2000, null, 0L));
+		User user = userRepository.save(new User(null, "Borrower", "import-loan@example.com", "555", "Student",
+				"import-loan", LocalDate.now(), "ACTIVE", 0, 0L));
+		transactionService.issueBook(user.getId(), book.getId());
+		transactionService.issueBook(userRepository.save(new User(null, "Second", "import-loan-2@example.com", "555",
+				"Student", "import-loan-2", LocalDate.now(), "ACTIVE", 0, 0L)).getId(), book.getId());
+
+		BookImportResultDTO result = bookImportService.importJson(stream(
+				"{\"isbn\":\"import-loan\",\"title\":\"On Loan\",\"quantity\":1}\n"
+						+ "{\"isbn\":\"import-json-1\",\"title\":\"Fresh\",\"quantity\":\"many\"}\n"
+						+ "{\"isbn\":\"import-json-2\",\"title\":\"Fresh\",\"quantity\":2}\n"));
+
+		assertThat(result.getInserted()).isEqualTo(1);
+		assertThat(result.getUpdated()).isZero();
+		assertThat(result.getFailed()).isEqualTo(2);
+		assertThat(result.getErrors()).extracting(BookImportErrorDTO::getRow).containsExactly(2L, 1L);
+		assertThat(bookRepository.findByIsbn("import-loan")).get()
+				.satisfies(b -> assertThat(b.getQuantity()).isEqualTo(2));
+	}
+
+	@Test
+	void jsonArrayImportAndMalformedUploadAborts() {
+		BookImportResultDTO imported = bookImportService.importJson(stream(
+				"[{\"isbn\":\"import-array-1\",\"title\":\"One\",\"quantity\":1},"
+						+ "{\"isbn\":\"import-array-2\",\"title\":\"Two\",\"quantity\":2}]"));
+		assertThat(imported.getInserted()).isEqualTo(2);
+
+		BookImportResultDTO aborted = bookImportService.importCsv(stream("isbn,title\n\"import-broken,Never closed\n"));
+		assertThat(aborted.getAborted()).isNotNull();
+		assertThat(bookRepository.existsByIsbn("import-broken")).isFalse();
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,132 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.SearchResultDTO;
+import com.example.bookbeacon.dto.UserDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class CatalogSearchIndexTests {
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Test
+	void titleMatchesOutrankDescriptionMatchesAndEveryWordMustMatch() {
+		BookDTO inDescription = create("rank-1", "Field Notes", "Writer", "A guide to the quillwort marshes");
+		BookDTO inTitle = create("rank-2", "Quillwort Marshes", "Writer", null);
+		create("rank-3", "Quillwort", "Writer", null);
+
+		assertThat(ids(bookService.searchBooks("marshes quillwort ", null, null)))
+				.containsExactly(inTitle.getId(), inDescription.getId());
+		assertThat(bookService.searchBooks("quillwort nosuchword ", null, null).getTotal()).isZero();
+	}
+
+	@Test
+	void lastWordMatchesAsPrefixUnlessFollowedByASpace() {
+		BookDTO book = create("prefix-1", "Zephyrine Tales", "Writer", null);
+
+		assertThat(ids(bookService.searchBooks("zephyr", null, null))).containsExactly(book.getId());
+		assertThat(ids(bookService.searchBooks("tales zephyr", null, null))).containsExactly(book.getId());
+		assertThat(bookService.searchBooks("zephyr ", null, null).getItems()).isEmpty();
+	}
+
+	@Test
+	void shortPrefixCountsEveryMatchingTerm() {
+		for (int i = 0; i < 80; i++) {
+			create("expand-" + i, String.format("Xylocarp%03d", i), "Writer", null);
+		}
+
+		SearchResultDTO<BookDTO> result = bookService.searchBooks("xylocarp", 0, 100);
+		assertThat(result.getTotal()).isEqualTo(80);
+		assertThat(result.getItems()).hasSize(80);
+	}
+
+	@Test
+	void wordsShorterThanThreeLettersMatchOnlyThemselves() {
+		BookDTO exact = create("min-prefix-1", "Qv Qvistmarks", "Writer", null);
+		BookDTO longer = create("min-prefix-2", "Qvistlund", "Writer", null);
+
+		assertThat(ids(bookService.searchBooks("qv", null, null))).containsExactly(exact.getId());
+		assertThat(ids(bookService.searchBooks("qvi", null, null))).containsExactlyInAnyOrder(exact.getId(), longer.getId());
+	}
+
+	@Test
+	void pagesCoverEveryMatchOnceAndOutOfRangePagesAreRejected() {
+		for (int i = 0; i < 5; i++) {
+			create("page-" + i, "Paginated Volume " + i, "Writer", null);
+		}
+
+		List<Long> seen = new ArrayList<>();
+		for (int page = 0; page < 3; page++) {
+			SearchResultDTO<BookDTO> result = bookService.searchBooks("paginated ", page, 2);
+			assertThat(result.getTotal()).isEqualTo(5);
+			seen.addAll(ids(result));
+		}
+		assertThat(seen).hasSize(5).doesNotHaveDuplicates();
+		assertThat(bookService.searchBooks("paginated ", 3, 2).getItems()).isEmpty();
+
+		assertThatThrownBy(() -> bookService.searchBooks("paginated ", -1, 2))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> bookService.searchBooks("paginated ", Integer.MAX_VALUE, 100))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void editsAndDeletesReachTheIndex() {
+		BookDTO book = create("update-1", "Obsidian Gardens", "Writer", null);
+		bookService.updateBook(book.getId(), new BookDTO(null, "Basalt Gardens", "Writer", "Fiction", "update-1",
+				1, null, 2001, null));
+
+		assertThat(bookService.searchBooks("obsidian ", null, null).getItems()).isEmpty();
+		assertThat(ids(bookService.searchBooks("basalt ", null, null))).containsExactly(book.getId());
+
+		bookService.deleteBook(book.getId());
+		assertThat(bookService.searchBooks("basalt ", null, null).getItems()).isEmpty();
+	}
+
+	@Test
+	void rolledBackWritesNeverReachTheIndex() {
+		BookDTO book = create("rollback-1", "Porphyry Atlas", "Writer", null);
+		create("rollback-2", "Other", "Writer", null);
+
+		// Unique ISBN: the update fails at commit, after the new title was written
+		BookDTO clash = new BookDTO(null, "Serpentine Atlas", "Writer", "Fiction", "search-rollback-2", 1, null,
+				2001, null);
+		assertThatThrownBy(() -> bookService.updateBook(book.getId(), clash)).isInstanceOf(RuntimeException.class);
+		assertThat(bookService.searchBooks("serpentine ", null, null).getItems()).isEmpty();
+		assertThat(ids(bookService.searchBooks("porphyry ", null, null))).containsExactly(book.getId());
+
+		// A loan's foreign key refuses the delete at commit
+		UserDTO member = userService.createUser(new UserDTO(null, "Searcher", "search-rollback@example.com", null,
+				"Student", "search-rollback", null, "Active", null));
+		transactionService.issueBook(member.getId(), book.getId());
+		assertThatThrownBy(() -> bookService.deleteBook(book.getId())).isInstanceOf(RuntimeException.class);
+		assertThat(ids(bookService.searchBooks("porphyry ", null, null))).containsExactly(book.getId());
+	}
+
+	private BookDTO create(String isbn, String title, String author, String description) {
+		return bookService.createBook(new BookDTO(null, title, author, "Fiction", "search-" + isbn, 1, null, 2001,
+				description));
+	}
+
+	private static List<Long> ids(SearchResultDTO<BookDTO> result) {
+		return result.getItems().stream().map(BookDTO::getId).toList();
+	}
+}
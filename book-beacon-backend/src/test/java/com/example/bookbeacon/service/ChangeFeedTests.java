@@ -0,0 +1,177 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.ChangeDTO;
+import com.example.bookbeacon.dto.TransactionDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.Transaction;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.TransactionRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Reads /api/events over HTTP; the flush interval is pushed out so each test decides when a batch goes out
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"bookbeacon.events.flush-interval=PT1H",
+		"bookbeacon.events.max-pending=3"
+})
+@ActiveProfiles("test")
+class ChangeFeedTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ChangeFeed changeFeed;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private LoanArchiver loanArchiver;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+	private CompletableFuture<HttpResponse<Stream<String>>> stream;
+
+	@BeforeEach
+	void connect() throws Exception {
+		// Streams of earlier tests are only dropped once a send to them fails
+		int earlier = changeFeed.getSubscriberCount();
+		stream = HttpClient.newHttpClient().sendAsync(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/events")).build(),
+				HttpResponse.BodyHandlers.ofLines());
+		stream.thenAccept(response -> new Thread(() -> response.body().forEach(lines::add)).start());
+		long deadline = System.currentTimeMillis() + 5000;
+		while (changeFeed.getSubscriberCount() == earlier && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(changeFeed.getSubscriberCount()).isEqualTo(earlier + 1);
+	}
+
+	@AfterEach
+	void disconnect() {
+		stream.cancel(true);
+	}
+
+	@Test
+	void changesToTheSameRowBetweenFlushesAreCoalesced() throws Exception {
+		Long bookId = bookRepository.save(new Book(null, "Feed", "Author", "Fiction", "feed-coalesce",
+				2, 2, 2024, null, 0L)).getId();
+		User user = userRepository.save(new User(null, "Feed", "feed@example.com", null, "Student", "feed-1",
+				LocalDate.now(), "Active", 0, 0L));
+
+		TransactionDTO loan = transactionService.issueBook(user.getId(), bookId);
+		transactionService.returnBook(loan.getId());
+		changeFeed.flush();
+
+		JsonNode changes = nextEvent("changes");
+		assertThat(changes).hasSize(2);
+		assertThat(find(changes, "loan", loan.getId()).get("status").asText()).isEqualTo("RETURNED");
+		assertThat(find(changes, "book", bookId).get("available").asInt()).isEqualTo(2);
+	}
+
+	@Test
+	void newBookIsAnnouncedAsCreatedEvenIfItChangesBeforeTheSend() throws Exception {
+		BookDTO book = bookService.createBook(new BookDTO(null, "Fresh", "Author", "Fiction", "feed-created", 2, null,
+				2024, null));
+		changeFeed.flush();
+		assertThat(find(nextEvent("changes"), "book", book.getId()).get("action").asText()).isEqualTo("created");
+
+		// Changed again before the client was sent the creation: it must still learn the book is new
+		changeFeed.onChange(new ChangeDTO("book", "created", -1L, 2, 2, null, null, null, null, null, null, null));
+		changeFeed.onChange(new ChangeDTO("book", "changed", -1L, 1, 2, null, null, null, null, null, null, null));
+		changeFeed.flush();
+		JsonNode change = find(nextEvent("changes"), "book", -1L);
+		assertThat(change.get("action").asText()).isEqualTo("created");
+		assertThat(change.get("available").asInt()).isEqualTo(1);
+	}
+
+	@Test
+	void archivingLoansAsksClientsToResync() throws Exception {
+		Book book = bookRepository.save(new Book(null, "Feed", "Author", "Fiction", "feed-archive", 1, 1, 1999,
+				null, 0L));
+		User user = userRepository.save(new User(null, "Feed", "feed-archive@example.com", null, "Student",
+				"feed-archive", LocalDate.now(), "Active", 0, 0L));
+		transactionRepository.save(new Transaction(null, user, book, LocalDate.of(1999, 1, 10),
+				LocalDate.of(1999, 1, 24), LocalDate.of(1999, 2, 1), "RETURNED", BigDecimal.ZERO, false));
+
+		assertThat(loanArchiver.archive(LocalDate.now())).isPositive();
+		changeFeed.flush();
+
+		assertThat(nextEventName()).isEqualTo("resync");
+	}
+
+	@Test
+	void clientTooFarBehindIsToldToResync() throws Exception {
+		for (long id = 1; id <= 4; id++) {
+			changeFeed.onChange(ChangeFeed.userChange("changed", id, "Active"));
+		}
+		changeFeed.flush();
+
+		assertThat(nextEventName()).isEqualTo("resync");
+	}
+
+	private JsonNode nextEvent(String name) throws Exception {
+		assertThat(nextEventName()).isEqualTo(name);
+		String data = lines.poll(5, TimeUnit.SECONDS);
+		assertThat(data).startsWith("data:");
+		return objectMapper.readTree(data.substring("data:".length()));
+	}
+
+	private String nextEventName() throws Exception {
+		String line;
+		while ((line = lines.poll(5, TimeUnit.SECONDS)) != null) {
+			if (line.startsWith("event:")) {
+				return line.substring("event:".length());
+			}
+		}
+		return null;
+	}
+
+	private static JsonNode find(JsonNode changes, String type, Long id) {
+		for (JsonNode change : changes) {
+			if (type.equals(change.get("type").asText()) && id == change.get("id").asLong()) {
+				return change;
+			}
+		}
+		throw new AssertionError("No " + type + " " + id + " in " + changes);
+	}
+}
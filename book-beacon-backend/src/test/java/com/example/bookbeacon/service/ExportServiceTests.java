@@ -0,0 +1,80 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ExportServiceTests {
+
+	@Autowired
+	private ExportService exportService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void csvExportQuotesFieldsAndResumesWithoutHeader() throws Exception {
+		Book first = bookRepository.save(new Book(null, "Plain", "Author", "Fiction", "export-csv-1", 1, 1, 2001, null, 0L));
+		Book second = bookRepository.save(new Book(null, "Commas, \"Quotes\"", "Author", "Fiction", "export-csv-2",
+				2, 2, 2002, "Line one\nLine two", 0L));
+
+		List<String> lines = export(ExportService.Dataset.BOOKS, ExportService.Format.CSV, 0).lines().toList();
+		assertThat(lines.get(0)).isEqualTo("id,title,author,category,isbn,quantity,available,publishedYear,description");
+		assertThat(lines).contains(first.getId() + ",Plain,Author,Fiction,export-csv-1,1,1,2001,");
+		assertThat(lines).contains(second.getId() + ",\"Commas, \"\"Quotes\"\"\",Author,Fiction,export-csv-2,2,2,2002,\"Line one");
+
+		String resumed = export(ExportService.Dataset.BOOKS, ExportService.Format.CSV, first.getId());
+		assertThat(resumed).startsWith(second.getId() + ",");
+		assertThat(resumed).doesNotContain("export-csv-1");
+	}
+
+	@Test
+	void ndjsonExportWritesOneObjectPerLine() throws Exception {
+		Book book = bookRepository.save(new Book(null, "Exported", "Author", "Fiction", "export-json", 1, 1, 2001, null, 0L));
+		User user = userRepository.save(new User(null, "Exporter", "export@example.com", "555", "Student",
+				"export-json", LocalDate.now(), "ACTIVE", 0, 0L));
+		Long loanId = transactionService.issueBook(user.getId(), book.getId()).getId();
+
+		List<String> lines = export(ExportService.Dataset.TRANSACTIONS, ExportService.Format.NDJSON, loanId - 1)
+				.lines().toList();
+		assertThat(lines).hasSize(1);
+		JsonNode loan = objectMapper.readTree(lines.get(0));
+		assertThat(loan.get("id").asLong()).isEqualTo(loanId);
+		assertThat(loan.get("userName").asText()).isEqualTo("Exporter");
+		assertThat(loan.get("bookIsbn").asText()).isEqualTo("export-json");
+		assertThat(loan.get("issueDate").asText()).isEqualTo(LocalDate.now().toString());
+		assertThat(loan.get("returnDate").isNull()).isTrue();
+		assertThat(loan.get("status").asText()).isEqualTo("ISSUED");
+	}
+
+	private String export(ExportService.Dataset dataset, ExportService.Format format, long afterId) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.export(dataset, format, afterId, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,180 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.TestLibrary;
+import com.example.bookbeacon.dto.HoldDTO;
+import com.example.bookbeacon.dto.TransactionDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Hold queue: FIFO order, allocation on return, pick-up, cancellation and expiry
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class HoldServiceTests {
+
+	@Autowired
+	private TestLibrary library;
+
+	@Autowired
+	private HoldService holdService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private StatsService statsService;
+
+	@Autowired
+	private ApplicationEvents events;
+
+	@Test
+	void returnedCopyGoesToFrontOfQueueAndOnlyThatMemberCanTakeIt() {
+		Long bookId = library.saveBook("holds-fifo", 1).getId();
+		Long borrower = library.saveUser("fifo-borrower").getId();
+		TransactionDTO loan = transactionService.issueBook(borrower, bookId);
+
+		assertThatThrownBy(() -> holdService.placeHold(borrower, library.saveBook("holds-shelf", 1).getId()))
+				.hasMessage("Book is available, no hold needed");
+		HoldDTO first = holdService.placeHold(library.saveUser("fifo-1").getId(), bookId);
+		HoldDTO second = holdService.placeHold(library.saveUser("fifo-2").getId(), bookId);
+		HoldDTO third = holdService.placeHold(library.saveUser("fifo-3").getId(), bookId);
+		assertThat(List.of(first, second, third)).extracting(HoldDTO::getQueuePosition).containsExactly(1, 2, 3);
+		assertThatThrownBy(() -> holdService.placeHold(first.getUserId(), bookId))
+				.hasMessage("User already has a hold on this book");
+
+		holdService.cancelHold(second.getId());
+		assertThat(position(third)).isEqualTo(2);
+
+		transactionService.returnBook(loan.getId());
+		assertThat(holdService.getHold(first.getId())).get().satisfies(hold -> {
+			assertThat(hold.getStatus()).isEqualTo("READY");
+			assertThat(hold.getExpiresAt()).isAfter(LocalDateTime.now());
+		});
+		assertThat(position(third)).isEqualTo(1);
+		assertThat(bookRepository.findById(bookId).get().getAvailable()).isZero();
+		assertThat(events.stream(HoldReadyEvent.class)).singleElement()
+				.satisfies(event -> assertThat(event.userId()).isEqualTo(first.getUserId()));
+
+		// The copy is set aside: the member next in line cannot take it, the holder can
+		assertThatThrownBy(() -> transactionService.issueBook(third.getUserId(), bookId))
+				.hasMessage("Book is not available");
+		transactionService.issueBook(first.getUserId(), bookId);
+		assertThat(holdService.getHold(first.getId())).get()
+				.satisfies(hold -> assertThat(hold.getStatus()).isEqualTo("FULFILLED"));
+	}
+
+	@Test
+	void uncollectedHoldExpiresAndCopyMovesOn() {
+		Long bookId = library.saveBook("holds-expiry", 1).getId();
+		TransactionDTO loan = transactionService.issueBook(library.saveUser("expiry-borrower").getId(), bookId);
+		HoldDTO first = holdService.placeHold(library.saveUser("expiry-1").getId(), bookId);
+		HoldDTO second = holdService.placeHold(library.saveUser("expiry-2").getId(), bookId);
+		transactionService.returnBook(loan.getId());
+
+		assertThat(holdService.expireHolds(LocalDateTime.now().plusDays(4))).isEqualTo(1);
+		assertThat(holdService.getHold(first.getId())).get()
+				.satisfies(hold -> assertThat(hold.getStatus()).isEqualTo("EXPIRED"));
+		assertThat(holdService.getHold(second.getId())).get()
+				.satisfies(hold -> assertThat(hold.getStatus()).isEqualTo("READY"));
+
+		// Nobody left in line: an expired copy goes back on the shelf
+		assertThat(holdService.expireHolds(LocalDateTime.now().plusDays(8))).isEqualTo(1);
+		assertThat(bookRepository.findById(bookId).get().getAvailable()).isEqualTo(1);
+	}
+
+	@Test
+	void memberCannotHoldABookTheyHaveOnLoan() {
+		Long bookId = library.saveBook("holds-on-loan", 1).getId();
+		Long borrower = library.saveUser("on-loan-borrower").getId();
+		transactionService.issueBook(borrower, bookId);
+
+		assertThatThrownBy(() -> holdService.placeHold(borrower, bookId))
+				.hasMessage("User already has this book on loan");
+	}
+
+	@Test
+	void shelfCountOnlyMovesWhenACopyReachesOrLeavesTheShelf() {
+		Long bookId = library.saveBook("holds-stats", 1).getId();
+		TransactionDTO loan = transactionService.issueBook(library.saveUser("stats-borrower").getId(), bookId);
+		HoldDTO hold = holdService.placeHold(library.saveUser("stats-holder").getId(), bookId);
+		statsService.reconcile(); // The fixtures above bypass the service
+		long available = statsService.getStats().getAvailableCopies();
+
+		// Returned straight into the hold: nothing reaches the shelf
+		transactionService.returnBook(loan.getId());
+		assertThat(statsService.getStats().getAvailableCopies()).isEqualTo(available);
+
+		// Collected from the hold: nothing leaves the shelf either
+		TransactionDTO collected = transactionService.issueBook(hold.getUserId(), bookId);
+		assertThat(statsService.getStats().getAvailableCopies()).isEqualTo(available);
+
+		transactionService.returnBook(collected.getId());
+		assertThat(statsService.getStats().getAvailableCopies()).isEqualTo(available + 1);
+
+		// Stock arriving while members wait is taken off the shelf by the sweep
+		transactionService.issueBook(library.saveUser("stats-borrower-2").getId(), bookId);
+		HoldDTO waiting = holdService.placeHold(library.saveUser("stats-holder-2").getId(), bookId);
+		Book restocked = bookRepository.findById(bookId).get();
+		restocked.setQuantity(2);
+		restocked.setAvailable(1);
+		bookRepository.save(restocked);
+		statsService.reconcile();
+		holdService.allocateShelfCopies();
+		assertThat(holdService.getHold(waiting.getId())).get()
+				.satisfies(ready -> assertThat(ready.getStatus()).isEqualTo("READY"));
+		holdService.cancelHold(waiting.getId()); // Back on the shelf; other tests expire every READY hold
+
+		long incremental = statsService.getStats().getAvailableCopies();
+		statsService.reconcile();
+		assertThat(statsService.getStats().getAvailableCopies()).isEqualTo(incremental);
+	}
+
+	@Test
+	void concurrentPlacementsGetDistinctPositions() throws Exception {
+		int patrons = 40;
+		Long bookId = library.saveBook("holds-concurrent", 1).getId();
+		transactionService.issueBook(library.saveUser("concurrent-borrower").getId(), bookId);
+		List<Long> userIds = new ArrayList<>();
+		for (int i = 0; i < patrons; i++) {
+			userIds.add(library.saveUser("concurrent-" + i).getId());
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<HoldDTO>> futures = new ArrayList<>();
+		for (Long userId : userIds) {
+			futures.add(pool.submit(() -> holdService.placeHold(userId, bookId)));
+		}
+		List<Integer> positions = new ArrayList<>();
+		for (Future<HoldDTO> future : futures) {
+			positions.add(future.get(1, TimeUnit.MINUTES).getQueuePosition());
+		}
+		pool.shutdown();
+
+		assertThat(positions).containsExactlyInAnyOrderElementsOf(
+				java.util.stream.IntStream.rangeClosed(1, patrons).boxed().toList());
+	}
+
+	private int position(HoldDTO hold) {
+		return holdService.getHold(hold.getId()).get().getQueuePosition();
+	}
+}
@@ -0,0 +1,93 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.CounterDiscrepancyDTO;
+import com.example.bookbeacon.dto.ReconciliationReportDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "bookbeacon.reconcile.chunk-size=4")
+@ActiveProfiles("test")
+class InventoryReconcilerTests {
+
+	@Autowired
+	private InventoryReconciler inventoryReconciler;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TableVersions tableVersions;
+
+	@Test
+	void driftedCountersAreReportedThenRepaired() {
+		Book book = bookRepository.save(new Book(null, "Drift", "Author", "Fiction", "drift-1", 5, 5, 2001, null, 0L));
+		User user = userRepository.save(new User(null, "Drifter", "drift@example.com", null, "Student", "drift-1",
+				LocalDate.now(), "Active", 0, 0L));
+		transactionService.issueBook(user.getId(), book.getId());
+		transactionService.issueBook(user.getId(), book.getId());
+		jdbcTemplate.update("UPDATE books SET available = 9 WHERE id = ?", book.getId());
+		jdbcTemplate.update("UPDATE users SET books_issued = 7 WHERE id = ?", user.getId());
+
+		ReconciliationReportDTO report = inventoryReconciler.reconcile(false);
+		assertThat(report.getBooksChecked()).isGreaterThanOrEqualTo(1);
+		assertThat(ours(report.getDiscrepancies(), book, user)).containsExactlyInAnyOrder(
+				new CounterDiscrepancyDTO("book", book.getId(), "available", 9, 3, false),
+				new CounterDiscrepancyDTO("user", user.getId(), "booksIssued", 7, 2, false));
+		assertThat(bookRepository.findById(book.getId()).get().getAvailable()).isEqualTo(9);
+
+		String booksVersion = tableVersions.etag(TableVersions.Table.BOOKS);
+		report = inventoryReconciler.reconcile(true);
+		assertThat(tableVersions.etag(TableVersions.Table.BOOKS)).isNotEqualTo(booksVersion);
+		assertThat(ours(report.getDiscrepancies(), book, user)).allSatisfy(d -> assertThat(d.isRepaired()).isTrue());
+		assertThat(bookRepository.findById(book.getId()).get().getAvailable()).isEqualTo(3);
+		assertThat(userRepository.findById(user.getId()).get().getBooksIssued()).isEqualTo(2);
+
+		assertThat(ours(inventoryReconciler.reconcile(false).getDiscrepancies(), book, user)).isEmpty();
+	}
+
+	@Test
+	void overIssuedBookIsReportedApartAndLeftAlone() {
+		Book book = bookRepository.save(new Book(null, "Short", "Author", "Fiction", "drift-over", 1, 1, 2001, null,
+				0L));
+		User user = userRepository.save(new User(null, "Short Drifter", "drift-over@example.com", null, "Faculty",
+				"drift-over", LocalDate.now(), "Active", 0, 0L));
+		transactionService.issueBook(user.getId(), book.getId());
+		jdbcTemplate.update("UPDATE books SET quantity = 0 WHERE id = ?", book.getId());
+
+		for (boolean repair : new boolean[]{false, true}) {
+			ReconciliationReportDTO report = inventoryReconciler.reconcile(repair);
+			assertThat(report.getOverIssuedBooks()).isGreaterThanOrEqualTo(1);
+			assertThat(ours(report.getDiscrepancies(), book, user)).containsExactly(
+					new CounterDiscrepancyDTO("book", book.getId(), "quantity", 0, 1, false));
+		}
+		assertThat(bookRepository.findById(book.getId()).get().getAvailable()).isZero();
+	}
+
+	private static List<CounterDiscrepancyDTO> ours(List<CounterDiscrepancyDTO> discrepancies, Book book, User user) {
+		return discrepancies.stream()
+				.filter(d -> d.getEntityType().equals("book") ? d.getEntityId().equals(book.getId())
+						: d.getEntityId().equals(user.getId()))
+				.toList();
+	}
+}
@@ -0,0 +1,91 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.TestLibrary;
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.CursorPageDTO;
+import com.example.bookbeacon.dto.UserDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Title- and name-sorted pages walk every row exactly once, untitled and unnamed ones included
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class KeysetPagingTests {
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void untitledBooksAreLastOnTitlePages() {
+		List<Long> expected = new ArrayList<>();
+		for (String title : new String[]{"Beta", "", "Alpha", "Beta"}) {
+			expected.add(saveBook(title, "keyset-" + expected.size()).getId());
+		}
+		Long untitled1 = saveBook(null, "keyset-null-1").getId();
+		Long untitled2 = saveBook(null, "keyset-null-2").getId();
+		Long untitled3 = saveBook(null, "keyset-null-3").getId();
+
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPageDTO<BookDTO> page = bookService.getBooks("Keyset", null, "title", cursor, 2);
+			page.getItems().forEach(book -> seen.add(book.getId()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(seen).containsExactly(expected.get(1), expected.get(2), expected.get(0), expected.get(3),
+				untitled1, untitled2, untitled3);
+	}
+
+	@Test
+	void unnamedMembersAreLastOnNamePages() {
+		Long named = saveUser("Zed", "keyset-named").getId();
+		Long unnamed1 = saveUser(null, "keyset-unnamed-1").getId();
+		Long unnamed2 = saveUser(null, "keyset-unnamed-2").getId();
+
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPageDTO<UserDTO> page = userService.getUsers("Keyset", null, "name", cursor, 1);
+			page.getItems().forEach(user -> seen.add(user.getId()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(seen).containsExactly(named, unnamed1, unnamed2);
+	}
+
+	// Filed under "Keyset", which the pages below filter on
+	private Book saveBook(String title, String isbn) {
+		Book book = TestLibrary.book(isbn, 1);
+		book.setTitle(title);
+		book.setCategory("Keyset");
+		return bookRepository.save(book);
+	}
+
+	private User saveUser(String name, String membershipId) {
+		User user = TestLibrary.member(membershipId);
+		user.setName(name);
+		user.setRole("Keyset");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.TransactionDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.Transaction;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.TransactionRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class LoanArchiverTests {
+
+	@Autowired
+	private LoanArchiver loanArchiver;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private TableVersions tableVersions;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void oldReturnedLoansAreArchivedAndOnlyListedOnRequest() {
+		Book book = bookRepository.save(new Book(null, "Archived", "Author", "History", "archive-1", 3, 2, 1999,
+				null, 0L));
+		User user = userRepository.save(new User(null, "Archivist", "archive@example.com", null, "Student",
+				"archive-1", LocalDate.of(1999, 1, 1), "Active", 1, 0L));
+		Transaction old = transactionRepository.save(new Transaction(null, user, book, LocalDate.of(2000, 1, 10),
+				LocalDate.of(2000, 1, 24), LocalDate.of(2000, 2, 1), "RETURNED", BigDecimal.ZERO, false));
+		Transaction stillOut = transactionRepository.save(new Transaction(null, user, book, LocalDate.of(2000, 1, 10),
+				LocalDate.of(2000, 1, 24), null, "OVERDUE", new BigDecimal("700.00"), false));
+		Transaction recent = transactionRepository.save(new Transaction(null, user, book, LocalDate.of(2001, 6, 1),
+				LocalDate.of(2001, 6, 15), LocalDate.of(2001, 6, 10), "RETURNED", BigDecimal.ZERO, false));
+
+		String usersVersion = tableVersions.etag(TableVersions.Table.USERS);
+
+		// Horizon P1Y: only loans returned before 2001-01-01
+		assertThat(loanArchiver.archive(LocalDate.of(2002, 1, 1))).isEqualTo(1);
+		assertThat(tableVersions.etag(TableVersions.Table.USERS)).isNotEqualTo(usersVersion);
+		assertThat(transactionRepository.findById(old.getId())).get().extracting(Transaction::isArchived)
+				.isEqualTo(true);
+		assertThat(loanArchiver.archive(LocalDate.of(2002, 1, 1))).isZero();
+
+		assertThat(transactionService.getUserTransactions(user.getId(), false, null, 10).getItems())
+				.extracting(TransactionDTO::getId).containsExactly(recent.getId(), stillOut.getId());
+		assertThat(transactionService.getUserTransactions(user.getId(), true, null, 10).getItems())
+				.extracting(TransactionDTO::getId).containsExactly(recent.getId(), stillOut.getId(), old.getId());
+		assertThat(transactionService.getBookTransactions(book.getId(), false))
+				.extracting(TransactionDTO::getId).containsExactly(stillOut.getId(), recent.getId());
+		assertThat(transactionService.getBookTransactions(book.getId(), true)).hasSize(3);
+		assertThat(transactionService.getTransactions(null, user.getId(), null, null, null, true, null, 10)
+				.getItems()).hasSize(3);
+		assertThat(transactionService.getLoanSummary(user.getId()).getLifetimeLoans()).isEqualTo(3);
+	}
+}
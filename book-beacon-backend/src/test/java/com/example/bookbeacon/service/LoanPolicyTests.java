@@ -0,0 +1,174 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.TransactionDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.Transaction;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.TransactionRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class LoanPolicyTests {
+
+	@Autowired
+	private LoanPolicyService loanPolicyService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Path rules;
+	private Object shippedRules;
+
+	@AfterEach
+	void restoreShippedRules() throws IOException {
+		if (rules != null) {
+			ReflectionTestUtils.setField(loanPolicyService, "rulesFile", shippedRules);
+			loanPolicyService.reload();
+			Files.delete(rules);
+		}
+	}
+
+	@Test
+	void mostSpecificRuleWinsAndFinesAreCapped() {
+		LoanPolicy policy = LoanPolicy.compile(List.of(
+				new LoanPolicy.Rule("*", "*", 14, 3, 100, 0),
+				new LoanPolicy.Rule("Faculty", "*", 28, 10, 50, 0),
+				new LoanPolicy.Rule("*", "Reference", 2, 3, 500, 2000),
+				new LoanPolicy.Rule("Faculty", "Reference", 7, 10, 100, 0)));
+		LocalDate due = LocalDate.of(2024, 3, 1);
+
+		assertThat(policy.loanDays(policy.cell("Student", "Fiction"))).isEqualTo(14);
+		assertThat(policy.loanDays(policy.cell(null, null))).isEqualTo(14);
+		assertThat(policy.loanDays(policy.cell("Faculty", "Fiction"))).isEqualTo(28);
+		assertThat(policy.loanDays(policy.cell("Student", "Reference"))).isEqualTo(2);
+		assertThat(policy.loanDays(policy.cell("Faculty", "Reference"))).isEqualTo(7);
+		assertThat(policy.fineCents(policy.cell("Student", "Fiction"), due, due)).isZero();
+		assertThat(policy.fineCents(policy.cell("Faculty", "Fiction"), due, due.plusDays(10))).isEqualTo(500);
+		assertThat(policy.fineCents(policy.cell("Student", "Reference"), due, due.plusDays(10))).isEqualTo(2000);
+
+		assertThatThrownBy(() -> LoanPolicy.compile(List.of(new LoanPolicy.Rule("Faculty", "*", 28, 10, 50, 0))))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void loansAndFinesFollowTheMembersRole() throws IOException {
+		useRules("*,*,14,3,1.00,0", "Faculty,*,28,10,0.50,0");
+		loanPolicyService.reload();
+		Book book = bookRepository.save(new Book(null, "Policy", "Author", "Science", "policy-1", 40, 40, 2010,
+				null, 0L));
+		User faculty = userRepository.save(new User(null, "Professor", "policy-f@example.com", null, "Faculty",
+				"policy-f", LocalDate.now(), "Active", 0, 0L));
+		User student = userRepository.save(new User(null, "Student", "policy-s@example.com", null, "Student",
+				"policy-s", LocalDate.now(), "Active", 0, 0L));
+
+		TransactionDTO loan = transactionService.issueBook(faculty.getId(), book.getId());
+		assertThat(loan.getDueDate()).isEqualTo(LocalDate.now().plusDays(28));
+		for (int i = 0; i < 3; i++) {
+			transactionService.issueBook(student.getId(), book.getId());
+		}
+		assertThatThrownBy(() -> transactionService.issueBook(student.getId(), book.getId()))
+				.hasMessage("User has reached maximum book limit");
+
+		// Enough overdue loans to give every recalculation thread a slice
+		LocalDate today = LocalDate.now();
+		List<Transaction> overdue = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			overdue.add(transactionRepository.save(new Transaction(null, i % 2 == 0 ? faculty : student, book,
+					today.minusDays(24), today.minusDays(10), null, "OVERDUE", null, false)));
+		}
+		loanPolicyService.recalculateFines(today);
+		for (int i = 0; i < overdue.size(); i++) {
+			assertThat(transactionRepository.findById(overdue.get(i).getId())).get()
+					.extracting(transaction -> transaction.getFine().movePointRight(2).longValueExact())
+					.isEqualTo(i % 2 == 0 ? 500L : 1000L);
+		}
+		assertThat(loanPolicyService.recalculateFines(today)).isZero();
+	}
+
+	@Test
+	void reloadDuringASweepLeavesFinesAtTheNewRates() throws Exception {
+		Book book = bookRepository.save(new Book(null, "Reload", "Author", "Science", "policy-reload", 10, 10, 2010,
+				null, 0L));
+		User member = userRepository.save(new User(null, "Reloader", "policy-r@example.com", null, "Student",
+				"policy-r", LocalDate.now(), "Active", 0, 0L));
+		LocalDate today = LocalDate.now();
+		List<Long> overdue = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			overdue.add(transactionRepository.save(new Transaction(null, member, book, today.minusDays(24),
+					today.minusDays(10), null, "OVERDUE", null, false)).getId());
+		}
+
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		try {
+			useRules("*,*,14,3,1.00,0");
+			loanPolicyService.reload();
+			useRules("*,*,14,3,3.00,0");
+
+			// The sweep's repricing and the reload race; whichever runs last must not leave the old rate behind
+			CountDownLatch start = new CountDownLatch(1);
+			Future<?> sweep = callers.submit(() -> {
+				start.await();
+				for (int i = 0; i < 5; i++) {
+					loanPolicyService.recalculateFines(today);
+				}
+				return null;
+			});
+			Future<?> reload = callers.submit(() -> {
+				start.await();
+				return loanPolicyService.reload();
+			});
+			start.countDown();
+			sweep.get();
+			reload.get();
+
+			assertThat(transactionRepository.findAllById(overdue)).hasSize(20)
+					.allSatisfy(loan -> assertThat(loan.getFine()).isEqualByComparingTo(new BigDecimal("30.00")));
+		} finally {
+			callers.shutdownNow();
+		}
+	}
+
+	// Rules from a file, as a deployment configures them; the shipped table is put back after the test
+	private void useRules(String... rows) throws IOException {
+		if (rules == null) {
+			rules = Files.createTempFile("loan-policy", ".csv");
+			shippedRules = ReflectionTestUtils.getField(loanPolicyService, "rulesFile");
+			ReflectionTestUtils.setField(loanPolicyService, "rulesFile", new FileSystemResource(rules));
+		}
+		Files.writeString(rules, "role,category,loanDays,maxLoans,finePerDay,maxFine\n" + String.join("\n", rows)
+				+ "\n");
+	}
+}
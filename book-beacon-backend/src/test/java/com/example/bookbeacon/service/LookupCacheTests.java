@@ -0,0 +1,111 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.UserDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Barcode-scan lookups are served from the cache until a service write to the row evicts them
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class LookupCacheTests {
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void bookLookupsAreCachedUntilAServiceWriteEvictsThem() {
+		BookDTO book = bookService.createBook(new BookDTO(null, "Cached", "Author", "Fiction", "cache-book", 2, null,
+				2020, null));
+		assertThat(bookService.getBookById(book.getId())).get().extracting(BookDTO::getTitle).isEqualTo("Cached");
+		assertThat(bookService.getBookByIsbn("cache-book")).isPresent();
+
+		// Written behind the service's back: the cached copies do not see it
+		Book row = bookRepository.findById(book.getId()).get();
+		row.setTitle("Behind");
+		bookRepository.save(row);
+		assertThat(bookService.getBookById(book.getId())).get().extracting(BookDTO::getTitle).isEqualTo("Cached");
+
+		book.setTitle("Renamed");
+		book.setIsbn("cache-book-2");
+		bookService.updateBook(book.getId(), book);
+		assertThat(bookService.getBookById(book.getId())).get().extracting(BookDTO::getTitle).isEqualTo("Renamed");
+		assertThat(bookService.getBookByIsbn("cache-book")).isEmpty();
+		assertThat(bookService.getBookByIsbn("cache-book-2")).isPresent();
+
+		// A loan moves available, so it evicts too
+		User borrower = userRepository.save(new User(null, "Cache Member", "cache-loan@example.com", null, "Student",
+				"cache-loan", null, "Active", 0, 0L));
+		transactionService.issueBook(borrower.getId(), book.getId());
+		assertThat(bookService.getBookByIsbn("cache-book-2")).get().extracting(BookDTO::getAvailable).isEqualTo(1);
+	}
+
+	@Test
+	void deletedBookIsNoLongerServedFromTheCache() {
+		BookDTO book = bookService.createBook(new BookDTO(null, "Gone", "Author", "Fiction", "cache-gone", 1, null,
+				2020, null));
+		assertThat(bookService.getBookById(book.getId())).isPresent();
+
+		bookService.deleteBook(book.getId());
+		assertThat(bookService.getBookById(book.getId())).isEmpty();
+		assertThat(bookService.getBookByIsbn("cache-gone")).isEmpty();
+	}
+
+	@Test
+	void failedUpdateLeavesTheCachedBookInPlace() {
+		BookDTO book = bookService.createBook(new BookDTO(null, "Kept", "Author", "Fiction", "cache-kept", 1, null,
+				2020, null));
+		assertThat(bookService.getBookById(book.getId())).isPresent();
+
+		BookDTO clash = new BookDTO(null, "Clash", "Author", "Fiction", "cache-clash", 1, null, 2020, null);
+		bookService.createBook(clash);
+		book.setIsbn("cache-clash"); // Unique constraint: the update rolls back at commit
+		assertThatThrownBy(() -> bookService.updateBook(book.getId(), book)).isInstanceOf(RuntimeException.class);
+
+		assertThat(bookService.getBookById(book.getId())).get().extracting(BookDTO::getIsbn).isEqualTo("cache-kept");
+		assertThat(bookRepository.findById(book.getId()).get().getIsbn()).isEqualTo("cache-kept");
+	}
+
+	@Test
+	void memberLookupsAreEvictedByUpdates() {
+		UserDTO user = userService.createUser(new UserDTO(null, "Cached Member", "cache-user@example.com", null,
+				"Student", "cache-user", null, "Active", null));
+		assertThat(userService.getUserById(user.getId())).isPresent();
+		assertThat(userService.getUserByMembershipId("cache-user")).isPresent();
+
+		User row = userRepository.findById(user.getId()).get();
+		row.setName("Behind");
+		userRepository.save(row);
+		assertThat(userService.getUserById(user.getId())).get().extracting(UserDTO::getName)
+				.isEqualTo("Cached Member");
+
+		user.setName("Renamed Member");
+		user.setStatus("Suspended");
+		userService.updateUser(user.getId(), user);
+		assertThat(userService.getUserById(user.getId())).get().extracting(UserDTO::getName)
+				.isEqualTo("Renamed Member");
+		assertThat(userService.getUserByMembershipId("cache-user")).get().extracting(UserDTO::getStatus)
+				.isEqualTo("Suspended");
+	}
+}
@@ -0,0 +1,118 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.TestLibrary;
+import com.example.bookbeacon.dto.ChangeDTO;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.Transaction;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Overdue sweep: ISSUED loans past due move to OVERDUE in chunks, get their fine priced, and reach the change feed
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class OverdueSweepTests {
+
+	@Autowired
+	private TestLibrary library;
+
+	@Autowired
+	private OverdueSweepService overdueSweepService;
+
+	@Autowired
+	private LoanPolicyService loanPolicyService;
+
+	@Autowired
+	private TableVersions tableVersions;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private ApplicationEvents events;
+
+	@Test
+	void loansPastDueAreMarkedInChunksAndFined() {
+		User member = library.saveUser("sweep-1");
+		LocalDate due = LocalDate.now().minusDays(3);
+		List<Long> late = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			late.add(saveLoan(member, saveLentBook("sweep-late-" + i), due).getId());
+		}
+		Long current = saveLoan(member, saveLentBook("sweep-current"), LocalDate.now().plusDays(1)).getId();
+		String usersVersion = tableVersions.etag(TableVersions.Table.USERS);
+
+		Object chunkSize = ReflectionTestUtils.getField(overdueSweepService, "chunkSize");
+		ReflectionTestUtils.setField(overdueSweepService, "chunkSize", 2);
+		try {
+			overdueSweepService.sweep();
+		} finally {
+			ReflectionTestUtils.setField(overdueSweepService, "chunkSize", chunkSize);
+		}
+
+		LoanPolicy policy = loanPolicyService.current();
+		BigDecimal fine = BigDecimal.valueOf(policy.fineCents(policy.cell("Student", "Fiction"), due,
+				LocalDate.now()), 2);
+		assertThat(fine).isPositive();
+		assertThat(transactionRepository.findAllById(late)).hasSize(5).allSatisfy(loan -> {
+			assertThat(loan.getStatus()).isEqualTo("OVERDUE");
+			assertThat(loan.getFine()).isEqualByComparingTo(fine);
+		});
+		assertThat(transactionRepository.findById(current).get()).satisfies(loan -> {
+			assertThat(loan.getStatus()).isEqualTo("ISSUED");
+			assertThat(loan.getFine()).isZero();
+		});
+
+		// The chunk after the last one finds nothing left to mark
+		assertThat(overdueSweepService.markNewlyOverdue(LocalDate.now())).isZero();
+
+		assertThat(events.stream(ChangeDTO.class).filter(change -> "overdue".equals(change.getAction()))
+				.map(ChangeDTO::getId)).containsAll(late).doesNotContain(current);
+		assertThat(tableVersions.etag(TableVersions.Table.USERS)).isNotEqualTo(usersVersion);
+	}
+
+	@Test
+	void returnedLoansPastDueAreLeftAlone() {
+		User member = library.saveUser("sweep-2");
+		LocalDate due = LocalDate.now().minusDays(10);
+		Transaction returned = saveLoan(member, saveLentBook("sweep-returned"), due);
+		returned.setStatus("RETURNED");
+		returned.setReturnDate(due.minusDays(1));
+		transactionRepository.save(returned);
+
+		overdueSweepService.markNewlyOverdue(LocalDate.now());
+
+		assertThat(transactionRepository.findById(returned.getId()).get().getStatus()).isEqualTo("RETURNED");
+		assertThat(events.stream(ChangeDTO.class).map(ChangeDTO::getId)).doesNotContain(returned.getId());
+	}
+
+	private Transaction saveLoan(User member, Book book, LocalDate dueDate) {
+		return transactionRepository.save(new Transaction(null, member, book, dueDate.minusDays(14), dueDate, null,
+				"ISSUED", BigDecimal.ZERO, false));
+	}
+
+	// The loan saved with it holds the only copy
+	private Book saveLentBook(String isbn) {
+		Book book = TestLibrary.book(isbn, 1);
+		book.setAvailable(0);
+		return bookRepository.save(book);
+	}
+}
@@ -0,0 +1,126 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.dto.BookDTO;
+import com.example.bookbeacon.dto.StatsDTO;
+import com.example.bookbeacon.dto.TransactionDTO;
+import com.example.bookbeacon.dto.UserDTO;
+import com.example.bookbeacon.model.Transaction;
+import com.example.bookbeacon.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Dashboard totals: each write applies its delta on commit and lands where a full reconcile would
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class StatsServiceTests {
+
+	@Autowired
+	private StatsService statsService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@BeforeEach
+	void startFromTheDatabase() {
+		statsService.reconcile(); // Other tests write fixtures straight through the repositories
+	}
+
+	@Test
+	void catalogAndMemberWritesMoveTheirTotals() {
+		StatsDTO before = statsService.getStats();
+
+		BookDTO book = bookService.createBook(book("stats-catalog", 3));
+		bookService.updateBook(book.getId(), book("stats-catalog", 5));
+		UserDTO user = userService.createUser(user("stats-catalog"));
+		user.setStatus("Suspended");
+		userService.updateUser(user.getId(), user);
+
+		StatsDTO after = statsService.getStats();
+		assertThat(after.getTotalTitles()).isEqualTo(before.getTotalTitles() + 1);
+		assertThat(after.getTotalCopies()).isEqualTo(before.getTotalCopies() + 5);
+		assertThat(after.getAvailableCopies()).isEqualTo(before.getAvailableCopies() + 5);
+		assertThat(after.getTotalMembers()).isEqualTo(before.getTotalMembers() + 1);
+		assertThat(after.getActiveMembers()).isEqualTo(before.getActiveMembers());
+		assertMatchesReconcile();
+
+		bookService.deleteBook(book.getId());
+		userService.deleteUser(user.getId());
+		after = statsService.getStats();
+		assertThat(after.getTotalTitles()).isEqualTo(before.getTotalTitles());
+		assertThat(after.getTotalCopies()).isEqualTo(before.getTotalCopies());
+		assertThat(after.getTotalMembers()).isEqualTo(before.getTotalMembers());
+		assertMatchesReconcile();
+	}
+
+	@Test
+	void loansMoveCirculationTotalsAndRejectedLoansLeaveThemAlone() {
+		BookDTO book = bookService.createBook(book("stats-loans", 1));
+		UserDTO borrower = userService.createUser(user("stats-loans-1"));
+		UserDTO other = userService.createUser(user("stats-loans-2"));
+		StatsDTO before = statsService.getStats();
+
+		TransactionDTO loan = transactionService.issueBook(borrower.getId(), book.getId());
+		assertThat(statsService.getStats().getOpenLoans()).isEqualTo(before.getOpenLoans() + 1);
+		assertThat(statsService.getStats().getAvailableCopies()).isEqualTo(before.getAvailableCopies() - 1);
+
+		// Rolled back: no copy left, so nothing may be counted
+		assertThatThrownBy(() -> transactionService.issueBook(other.getId(), book.getId()))
+				.hasMessage("Book is not available");
+		assertThat(statsService.getStats().getOpenLoans()).isEqualTo(before.getOpenLoans() + 1);
+		assertMatchesReconcile();
+
+		// Returning an overdue loan settles its fine out of the outstanding total
+		Transaction overdue = transactionRepository.findById(loan.getId()).get();
+		overdue.setStatus("OVERDUE");
+		overdue.setDueDate(LocalDate.now().minusDays(2));
+		overdue.setFine(new BigDecimal("2.00"));
+		transactionRepository.save(overdue);
+		statsService.reconcileLoans();
+		StatsDTO overdueBefore = statsService.getStats();
+
+		transactionService.returnBook(loan.getId());
+		StatsDTO after = statsService.getStats();
+		assertThat(after.getOpenLoans()).isEqualTo(before.getOpenLoans());
+		assertThat(after.getOverdueLoans()).isEqualTo(overdueBefore.getOverdueLoans() - 1);
+		assertThat(after.getOutstandingFines())
+				.isEqualByComparingTo(overdueBefore.getOutstandingFines().subtract(new BigDecimal("2.00")));
+		assertThat(after.getAvailableCopies()).isEqualTo(before.getAvailableCopies());
+		assertMatchesReconcile();
+	}
+
+	private void assertMatchesReconcile() {
+		StatsDTO incremental = statsService.getStats();
+		statsService.reconcile();
+		assertThat(statsService.getStats()).usingRecursiveComparison()
+				.ignoringFields("reconciledAt")
+				.withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+				.isEqualTo(incremental);
+	}
+
+	private static BookDTO book(String isbn, int copies) {
+		return new BookDTO(null, "Stats", "Author", "Fiction", isbn, copies, null, 2020, null);
+	}
+
+	private static UserDTO user(String membershipId) {
+		return new UserDTO(null, "Stats Member", membershipId + "@example.com", null, "Student", membershipId,
+				null, "Active", null);
+	}
+}
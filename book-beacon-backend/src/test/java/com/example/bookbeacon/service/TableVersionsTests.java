@@ -0,0 +1,49 @@
+package com.example.bookbeacon.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ETags across instances: local writes reach the shared row, and the row's moves by others reach the local tag
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class TableVersionsTests {
+
+	@Autowired
+	private TableVersions tableVersions;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void writesOnOtherInstancesChangeTheTagAfterASync() {
+		tableVersions.sync();
+		String settled = tableVersions.etag(TableVersions.Table.BOOKS);
+		tableVersions.sync();
+		assertThat(tableVersions.etag(TableVersions.Table.BOOKS)).isEqualTo(settled);
+
+		// Our own write: the tag moves at once, the row on the next sync, and the sync does not move the tag again
+		tableVersions.bump(TableVersions.Table.BOOKS);
+		String written = tableVersions.etag(TableVersions.Table.BOOKS);
+		assertThat(written).isNotEqualTo(settled);
+		long before = sharedVersion();
+		tableVersions.sync();
+		assertThat(sharedVersion()).isEqualTo(before + 1);
+		assertThat(tableVersions.etag(TableVersions.Table.BOOKS)).isEqualTo(written);
+
+		// Another instance's write
+		jdbcTemplate.update("UPDATE table_versions SET version = version + 1 WHERE name = 'books'");
+		assertThat(tableVersions.etag(TableVersions.Table.BOOKS)).isEqualTo(written);
+		tableVersions.sync();
+		assertThat(tableVersions.etag(TableVersions.Table.BOOKS)).isNotEqualTo(written);
+	}
+
+	private long sharedVersion() {
+		return jdbcTemplate.queryForList("SELECT version FROM table_versions WHERE name = 'books'", Long.class)
+				.stream().findFirst().orElse(0L);
+	}
+}
@@ -0,0 +1,128 @@
+package com.example.bookbeacon.service;
+
+import com.example.bookbeacon.TestLibrary;
+import com.example.bookbeacon.model.Book;
+import com.example.bookbeacon.model.User;
+import com.example.bookbeacon.repository.BookRepository;
+import com.example.bookbeacon.repository.TransactionRepository;
+import com.example.bookbeacon.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Stress tests for issueBook under many simultaneous circulation-desk requests
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class TransactionServiceConcurrencyTests {
+
+	private static final Logger log = LoggerFactory.getLogger(TransactionServiceConcurrencyTests.class);
+	private static final int THREADS = 16;
+
+	@Autowired
+	private TestLibrary library;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Test
+	void concurrentIssuesNeverOversellCopies() throws Exception {
+		int copies = 50;
+		int patrons = 400;
+		Book book = library.saveBook("stress-oversell", copies);
+		List<Long> userIds = new ArrayList<>();
+		for (int i = 0; i < patrons; i++) {
+			userIds.add(library.saveUser("oversell-" + i).getId());
+		}
+
+		AtomicInteger issued = new AtomicInteger();
+		long elapsedNanos = runConcurrently(userIds.size(), i -> {
+			transactionService.issueBook(userIds.get(i), book.getId());
+			issued.incrementAndGet();
+		});
+
+		assertThat(issued.get()).isEqualTo(copies);
+		assertThat(bookRepository.findById(book.getId())).get()
+				.satisfies(b -> assertThat(b.getAvailable()).isZero());
+		assertThat(transactionRepository.findByBookIdAndStatus(book.getId(), "ISSUED")).hasSize(copies);
+		// For eyeballing only; TransactionServiceBenchmark is the measurement
+		log.info("issueBook: {} calls on {} threads, {} calls/s", patrons, THREADS,
+				Math.round(patrons / (elapsedNanos / 1e9)));
+	}
+
+	@Test
+	void concurrentIssuesRespectLoanLimit() throws Exception {
+		User user = library.saveUser("limit");
+		List<Long> bookIds = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			bookIds.add(library.saveBook("stress-limit-" + i, 1).getId());
+		}
+
+		AtomicInteger issued = new AtomicInteger();
+		runConcurrently(bookIds.size(), i -> {
+			transactionService.issueBook(user.getId(), bookIds.get(i));
+			issued.incrementAndGet();
+		});
+
+		assertThat(issued.get()).isEqualTo(3);
+		assertThat(userRepository.findById(user.getId())).get()
+				.satisfies(u -> assertThat(u.getBooksIssued()).isEqualTo(3));
+		// Rejected issues must have rolled back the copy they claimed
+		int available = bookIds.stream().mapToInt(id -> bookRepository.findById(id).get().getAvailable()).sum();
+		assertThat(available).isEqualTo(bookIds.size() - 3);
+	}
+
+	// Runs the calls from a fixed pool released at once; expected rejections are swallowed
+	private long runConcurrently(int calls, IssueCall call) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < calls; i++) {
+			int index = i;
+			futures.add(pool.submit(() -> {
+				start.await();
+				try {
+					call.run(index);
+				} catch (RuntimeException e) {
+					// Not available / limit reached
+				}
+				return null;
+			}));
+		}
+		long began = System.nanoTime();
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(1, TimeUnit.MINUTES);
+		}
+		long elapsed = System.nanoTime() - began;
+		pool.shutdown();
+		return elapsed;
+	}
+
+	@FunctionalInterface
+	private interface IssueCall {
+		void run(int index);
+	}
+}
@@ -1,25 +1,66 @@
-import React, { useState, useEffect } from 'react'
+import React, { useState, useEffect, useRef } from 'react'
 import { Link } from 'react-router-dom'
 import { Plus, Search, Edit, Trash2, BookOpen, Eye } from 'lucide-react'
-import { booksAPI } from '../services/api'
+import { booksAPI, subscribeToChanges } from '../services/api'
 import toast from 'react-hot-toast'
 
+const PAGE_SIZE = 50
+
 const Books = () => {
   const [books, setBooks] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
   const [loading, setLoading] = useState(true)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [searchTerm, setSearchTerm] = useState('')
   const [selectedBook, setSelectedBook] = useState(null)
   const [showModal, setShowModal] = useState(false)
+  const searchTermRef = useRef('')
 
   useEffect(() => {
-    fetchBooks()
-  }, [])
+    // Debounce so typing issues one search per pause instead of one per keystroke
+    const timer = setTimeout(() => {
+      if (searchTerm.trim()) {
+        searchBooks(searchTerm)
+      } else {
+        fetchBooks()
+      }
+    }, 250)
+    searchTermRef.current = searchTerm
+    return () => clearTimeout(timer)
+  }, [searchTerm])
+
+  // Availability changes are patched into the list as they happen instead of refetching it
+  useEffect(() => subscribeToChanges(applyChanges, reload), [])
+
+  const reload = () => {
+    const term = searchTermRef.current.trim()
+    term ? searchBooks(term) : fetchBooks()
+  }
+
+  const applyChanges = (changes) => {
+    const bookChanges = new Map(changes.filter(change => change.type === 'book').map(change => [change.id, change]))
+    if (bookChanges.size === 0) {
+      return
+    }
+    // A delta only carries the counts; a new title needs its full row and its place in the sort order
+    if ([...bookChanges.values()].some(change => change.action === 'created')) {
+      reload()
+      return
+    }
+    setBooks(current => current
+      .filter(book => bookChanges.get(book.id)?.action !== 'deleted')
+      .map(book => {
+        const change = bookChanges.get(book.id)
+        return change ? { ...book, available: change.available, quantity: change.quantity } : book
+      }))
+  }
 
   const fetchBooks = async () => {
     try {
       setLoading(true)
-      const response = await booksAPI.getAll()
-      setBooks(response.data)
+      const response = await booksAPI.getAll({ size: PAGE_SIZE })
+      setBooks(response.data.items)
+      setNextCursor(response.data.nextCursor)
     } catch (error) {
       console.error('Error fetching books:', error)
       toast.error('Failed to load books')
@@ -28,12 +69,37 @@ const Books = () => {
     }
   }
 
+  const loadMore = async () => {
+    try {
+      setLoadingMore(true)
+      const response = await booksAPI.getAll({ size: PAGE_SIZE, cursor: nextCursor })
+      setBooks(current => [...current, ...response.data.items])
+      setNextCursor(response.data.nextCursor)
+    } catch (error) {
+      console.error('Error fetching books:', error)
+      toast.error('Failed to load more books')
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
+  const searchBooks = async (query) => {
+    try {
+      const response = await booksAPI.search(query, { size: 100 })
+      setBooks(response.data.items)
+      setNextCursor(null)
+    } catch (error) {
+      console.error('Error searching books:', error)
+      toast.error('Failed to search books')
+    }
+  }
+
   const handleDelete = async (id) => {
     if (window.confirm('Are you sure you want to delete this book?')) {
       try {
         await booksAPI.delete(id)
         toast.success('Book deleted successfully')
-        fetchBooks()
+        searchTerm.trim() ? searchBooks(searchTerm) : fetchBooks()
       } catch (error) {
         console.error('Error deleting book:', error)
         toast.error('Failed to delete book')
@@ -46,13 +112,6 @@ const Books = () => {
     setShowModal(true)
   }
 
-  const filteredBooks = books.filter(book =>
-    book.title?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-    book.author?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-    book.isbn?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-    book.category?.toLowerCase().includes(searchTerm.toLowerCase())
-  )
-
   if (loading) {
     return (
       <div className="flex items-center justify-center h-64">
@@ -93,7 +152,7 @@ const Books = () => {
 
       {/* Books Grid */}
       <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-3 gap-6">
-        {filteredBooks.map((book) => (
+        {books.map((book) => (
           <div key={book.id} className="card hover:shadow-lg transition-all duration-200">
             <div className="card-body">
               <div className="flex items-start justify-between mb-3">
@@ -149,7 +208,15 @@ const Books = () => {
         ))}
       </div>
 
-      {filteredBooks.length === 0 && (
+      {nextCursor && (
+        <div className="text-center">
+          <button onClick={loadMore} className="btn-secondary" disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </button>
+        </div>
+      )}
+
+      {books.length === 0 && (
         <div className="text-center py-12">
           <BookOpen className="h-12 w-12 mx-auto text-gray-300 mb-4" />
           <h3 className="text-lg font-medium text-gray-900 mb-2">No books found</h3>
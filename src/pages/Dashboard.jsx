@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react'
 import { BookOpen, Users, ArrowRightLeft, TrendingUp } from 'lucide-react'
-import { booksAPI, usersAPI } from '../services/api'
+import { statsAPI, subscribeToChanges } from '../services/api'
 import toast from 'react-hot-toast'
 
 const Dashboard = () => {
@@ -18,28 +18,31 @@ const Dashboard = () => {
     fetchDashboardData()
   }, [])
 
-  const fetchDashboardData = async () => {
-    try {
-      setLoading(true)
-      const [booksResponse, usersResponse] = await Promise.all([
-        booksAPI.getAll(),
-        usersAPI.getAll()
-      ])
-
-      const books = booksResponse.data
-      const users = usersResponse.data
+  // Stats come from in-memory counters, so re-reading them once a burst of changes settles is cheap
+  useEffect(() => {
+    let timer
+    const unsubscribe = subscribeToChanges(() => {
+      clearTimeout(timer)
+      timer = setTimeout(() => fetchDashboardData(false), 1000)
+    }, () => fetchDashboardData(false))
+    return () => {
+      clearTimeout(timer)
+      unsubscribe()
+    }
+  }, [])
 
-      const totalBooks = books.reduce((sum, book) => sum + (book.quantity || 0), 0)
-      const availableBooks = books.reduce((sum, book) => sum + (book.available || 0), 0)
-      const activeUsers = users.filter(user => user.status === 'Active').length
+  const fetchDashboardData = async (showSpinner = true) => {
+    try {
+      setLoading(showSpinner)
+      const { data } = await statsAPI.get()
 
       setStats({
-        totalBooks,
-        availableBooks,
-        totalUsers: users.length,
-        activeUsers,
-        totalTransactions: users.reduce((sum, user) => sum + (user.booksIssued || 0), 0),
-        overdueBooks: 0 // This would need additional API endpoint
+        totalBooks: data.totalCopies,
+        availableBooks: data.availableCopies,
+        totalUsers: data.totalMembers,
+        activeUsers: data.activeMembers,
+        totalTransactions: data.openLoans,
+        overdueBooks: data.overdueLoans
       })
     } catch (error) {
       console.error('Error fetching dashboard data:', error)
@@ -1,6 +1,6 @@
-import React, { useState, useEffect } from 'react'
+import React, { useState, useEffect, useRef } from 'react'
 import { Search, ArrowRightLeft, Calendar, User, BookOpen, Plus } from 'lucide-react'
-import { transactionsAPI, usersAPI, booksAPI } from '../services/api'
+import { transactionsAPI, usersAPI, booksAPI, subscribeToChanges } from '../services/api'
 import toast from 'react-hot-toast'
 import { format } from 'date-fns'
 
@@ -16,33 +16,62 @@ const Transactions = () => {
     bookId: ''
   })
 
+  const usersRef = useRef([])
+  const booksRef = useRef([])
+  usersRef.current = users
+  booksRef.current = books
+
   useEffect(() => {
     fetchData()
   }, [])
 
+  // Loans and availability from any desk are patched in as they happen
+  useEffect(() => subscribeToChanges(applyChanges, fetchData), [])
+
+  const applyChanges = (changes) => {
+    const bookChanges = new Map(changes.filter(change => change.type === 'book').map(change => [change.id, change]))
+    if (bookChanges.size > 0) {
+      setBooks(current => current
+        .filter(book => bookChanges.get(book.id)?.action !== 'deleted')
+        .map(book => {
+          const change = bookChanges.get(book.id)
+          return change ? { ...book, available: change.available, quantity: change.quantity } : book
+        }))
+    }
+    const loans = changes.filter(change => change.type === 'loan')
+    if (loans.length > 0) {
+      setTransactions(current => upsertLoans(current, loans))
+    }
+  }
+
+  // Newest loans first, as the list endpoint returns them; names come from the loaded users and books
+  const upsertLoans = (current, loans) => {
+    const byId = new Map(current.map(transaction => [transaction.id, transaction]))
+    loans.forEach(({ type, action, ...loan }) => {
+      const existing = byId.get(loan.id)
+      if (existing) {
+        byId.set(loan.id, { ...existing, ...loan })
+      } else {
+        const user = usersRef.current.find(u => u.id === loan.userId)
+        const book = booksRef.current.find(b => b.id === loan.bookId)
+        byId.set(loan.id, { userName: user?.name, bookTitle: book?.title, bookIsbn: book?.isbn, ...loan })
+      }
+    })
+    return Array.from(byId.values()).sort((a, b) => b.id - a.id)
+  }
+
   const fetchData = async () => {
     try {
       setLoading(true)
-      const [usersResponse, booksResponse] = await Promise.all([
-        usersAPI.getAll(),
-        booksAPI.getAll()
+      const [usersResponse, booksResponse, transactionsResponse] = await Promise.all([
+        usersAPI.getAll({ size: 200 }),
+        booksAPI.getAll({ size: 200 }),
+        transactionsAPI.getAll({ size: 200 })
       ])
       
-      setUsers(usersResponse.data)
-      setBooks(booksResponse.data)
-      
-      // Fetch all user transactions
-      const allTransactions = []
-      for (const user of usersResponse.data) {
-        try {
-          const userTransactions = await transactionsAPI.getUserTransactions(user.id)
-          allTransactions.push(...userTransactions.data)
-        } catch (error) {
-          console.error(`Error fetching transactions for user ${user.id}:`, error)
-        }
-      }
-      
-      setTransactions(allTransactions)
+      setUsers(usersResponse.data.items)
+      setBooks(booksResponse.data.items)
+      setTransactions(transactionsResponse.data.items)
     } catch (error) {
       console.error('Error fetching data:', error)
       toast.error('Failed to load data')
@@ -60,11 +89,11 @@ const Transactions = () => {
     }
 
     try {
-      await transactionsAPI.issueBook(issueForm.userId, issueForm.bookId)
+      const { data } = await transactionsAPI.issueBook(issueForm.userId, issueForm.bookId)
       toast.success('Book issued successfully')
       setShowIssueModal(false)
       setIssueForm({ userId: '', bookId: '' })
-      fetchData()
+      setTransactions(current => upsertLoans(current, [data]))
     } catch (error) {
       console.error('Error issuing book:', error)
       toast.error(error.response?.data || 'Failed to issue book')
@@ -74,9 +103,9 @@ const Transactions = () => {
   const handleReturnBook = async (transactionId) => {
     if (window.confirm('Are you sure you want to return this book?')) {
       try {
-        await transactionsAPI.returnBook(transactionId)
+        const { data } = await transactionsAPI.returnBook(transactionId)
         toast.success('Book returned successfully')
-        fetchData()
+        setTransactions(current => upsertLoans(current, [data]))
       } catch (error) {
         console.error('Error returning book:', error)
         toast.error(error.response?.data || 'Failed to return book')
@@ -243,7 +272,7 @@ const Transactions = () => {
                     )}
                   </td>
                   <td className="px-6 py-4 whitespace-nowrap text-sm font-medium">
-                    {transaction.status === 'ISSUED' && (
+                    {(transaction.status === 'ISSUED' || transaction.status === 'OVERDUE') && (
                       <button
                         onClick={() => handleReturnBook(transaction.id)}
                         className="btn-success text-xs"
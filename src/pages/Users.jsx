@@ -5,9 +5,13 @@ import { usersAPI } from '../services/api'
 import toast from 'react-hot-toast'
 import { format } from 'date-fns'
 
+const PAGE_SIZE = 50
+
 const Users = () => {
   const [users, setUsers] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
   const [loading, setLoading] = useState(true)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [searchTerm, setSearchTerm] = useState('')
   const [selectedUser, setSelectedUser] = useState(null)
   const [showModal, setShowModal] = useState(false)
@@ -19,8 +23,9 @@ const Users = () => {
   const fetchUsers = async () => {
     try {
       setLoading(true)
-      const response = await usersAPI.getAll()
-      setUsers(response.data)
+      const response = await usersAPI.getAll({ size: PAGE_SIZE })
+      setUsers(response.data.items)
+      setNextCursor(response.data.nextCursor)
     } catch (error) {
       console.error('Error fetching users:', error)
       toast.error('Failed to load users')
@@ -29,6 +34,20 @@ const Users = () => {
     }
   }
 
+  const loadMore = async () => {
+    try {
+      setLoadingMore(true)
+      const response = await usersAPI.getAll({ size: PAGE_SIZE, cursor: nextCursor })
+      setUsers(current => [...current, ...response.data.items])
+      setNextCursor(response.data.nextCursor)
+    } catch (error) {
+      console.error('Error fetching users:', error)
+      toast.error('Failed to load more users')
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
   const handleDelete = async (id) => {
     if (window.confirm('Are you sure you want to delete this user?')) {
       try {
@@ -60,6 +79,7 @@ const Users = () => {
     }
   }
 
+  // Filters the pages loaded so far
   const filteredUsers = users.filter(user =>
     user.name?.toLowerCase().includes(searchTerm.toLowerCase()) ||
     user.email?.toLowerCase().includes(searchTerm.toLowerCase()) ||
@@ -167,6 +187,14 @@ const Users = () => {
         ))}
       </div>
 
+      {nextCursor && (
+        <div className="text-center">
+          <button onClick={loadMore} className="btn-secondary" disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </button>
+        </div>
+      )}
+
       {filteredUsers.length === 0 && (
         <div className="text-center py-12">
           <UsersIcon className="h-12 w-12 mx-auto text-gray-300 mb-4" />
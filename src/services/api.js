@@ -9,9 +9,14 @@ const api = axios.create({
   },
 })
 
+// Identifies this tab to the backend, so reads after its own writes are served fresh
+const clientId = sessionStorage.getItem('clientId') || crypto.randomUUID()
+sessionStorage.setItem('clientId', clientId)
+
 // Request interceptor
 api.interceptors.request.use(
   (config) => {
+    config.headers['X-Client-Id'] = clientId
     return config
   },
   (error) => {
@@ -32,9 +37,10 @@ api.interceptors.response.use(
 
 // Books API
 export const booksAPI = {
-  getAll: () => api.get('/books'),
+  getAll: (params) => api.get('/books', { params }),
   getById: (id) => api.get(`/books/${id}`),
   getByIsbn: (isbn) => api.get(`/books/isbn/${isbn}`),
+  search: (q, params) => api.get('/books/search', { params: { q, ...params } }),
   create: (book) => api.post('/books', book),
   update: (id, book) => api.put(`/books/${id}`, book),
   delete: (id) => api.delete(`/books/${id}`),
@@ -42,7 +48,7 @@ export const booksAPI = {
 
 // Users API
 export const usersAPI = {
-  getAll: () => api.get('/users'),
+  getAll: (params) => api.get('/users', { params }),
   getById: (id) => api.get(`/users/${id}`),
   getByMembershipId: (membershipId) => api.get(`/users/membership/${membershipId}`),
   create: (user) => api.post('/users', user),
@@ -52,10 +58,44 @@ export const usersAPI = {
 
 // Transactions API
 export const transactionsAPI = {
+  getAll: (params) => api.get('/transactions', { params }),
   issueBook: (userId, bookId) => api.post(`/transactions/issue?userId=${userId}&bookId=${bookId}`),
   returnBook: (transactionId) => api.post(`/transactions/return/${transactionId}`),
-  getUserTransactions: (userId) => api.get(`/transactions/user/${userId}`),
+  // Paged: resolves to { items, nextCursor, size }; pass nextCursor back as params.cursor for the next page
+  getUserTransactions: (userId, params) => api.get(`/transactions/user/${userId}`, { params }),
+  getLoanSummary: (userId) => api.get(`/transactions/user/${userId}/summary`),
   getBookTransactions: (bookId) => api.get(`/transactions/book/${bookId}`),
 }
 
+// Change feed: onChanges receives arrays of row deltas, onResync means the page should reload its lists
+// (the server asked for it, or the stream dropped and deltas may have been missed)
+export const subscribeToChanges = (onChanges, onResync) => {
+  const source = new EventSource(`${API_BASE_URL}/events`)
+  let dropped = false
+  source.addEventListener('changes', (event) => onChanges(JSON.parse(event.data)))
+  source.addEventListener('resync', () => onResync())
+  source.onerror = () => { dropped = true }
+  source.onopen = () => {
+    if (dropped) {
+      dropped = false
+      onResync()
+    }
+  }
+  return () => source.close()
+}
+
+// Holds API
+export const holdsAPI = {
+  place: (userId, bookId) => api.post(`/holds?userId=${userId}&bookId=${bookId}`),
+  get: (id) => api.get(`/holds/${id}`),
+  cancel: (id) => api.delete(`/holds/${id}`),
+  getUserHolds: (userId) => api.get(`/holds/user/${userId}`),
+  getBookQueue: (bookId) => api.get(`/holds/book/${bookId}`),
+}
+
+// Stats API
+export const statsAPI = {
+  get: () => api.get('/stats'),
+}
+
 export default api
\ No newline at end of file